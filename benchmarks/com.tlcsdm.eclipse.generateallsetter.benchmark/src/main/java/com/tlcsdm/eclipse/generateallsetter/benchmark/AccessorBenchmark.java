@@ -0,0 +1,81 @@
+package com.tlcsdm.eclipse.generateallsetter.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.tlcsdm.eclipse.generateallsetter.handler.AccessorCache;
+import com.tlcsdm.eclipse.generateallsetter.handler.HandlerHelper;
+
+/**
+ * Measures the accessor collection over a class hierarchy and the default
+ * value resolution of the collected setter parameters. The bindings are
+ * resolved once per trial so only the hierarchy walk is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorBenchmark {
+
+	@Param({ "10", "200", "2000" })
+	public int properties;
+
+	@Param({ "1", "5", "20" })
+	public int levels;
+
+	private ITypeBinding type;
+	private List<ITypeBinding> parameterTypes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Corpus corpus = Corpus.create(properties, levels, 0);
+		CompilationUnit cu = corpus.parse(-1);
+		type = corpus.leafType(cu);
+		parameterTypes = HandlerHelper.collectSetters(type).stream().map(m -> m.getParameterTypes()[0]).toList();
+	}
+
+	@Benchmark
+	public List<IMethodBinding> collectSetters() {
+		return HandlerHelper.collectSetters(type);
+	}
+
+	@Benchmark
+	public List<IMethodBinding> collectGetters() {
+		return HandlerHelper.collectGetters(type);
+	}
+
+	/**
+	 * Repeated lookups of the same type, as issued by the handlers, served by
+	 * {@link AccessorCache}.
+	 */
+	@Benchmark
+	public List<IMethodBinding> cachedSetters() {
+		return AccessorCache.getSetters(type);
+	}
+
+	@Benchmark
+	public void defaultValues(Blackhole bh) {
+		for (ITypeBinding param : parameterTypes) {
+			bh.consume(HandlerHelper.defaultValueFor(param));
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.tlcsdm.eclipse.generateallsetter.benchmark;
+
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Synthetic bean sources for the benchmarks. A corpus is a chain of
+ * {@code levels} classes, each extending the previous one, that together
+ * declare {@code properties} bean properties of mixed types. Every level
+ * overrides one setter of its superclass so that the hierarchy walk has to
+ * deduplicate, and a {@code Usage} class declares a local variable of the most
+ * derived type and an empty converter method for it, surrounded by
+ * {@code fillerMethods} other methods.
+ */
+public final class Corpus {
+
+	static final String UNIT_NAME = "/bench/src/bench/Beans.java";
+
+	private static final String[] TYPES = { "int", "long", "boolean", "double", "String", "Integer", "Boolean",
+			"java.util.List<String>", "java.util.Map<String, Integer>", "java.time.LocalDate", "java.math.BigDecimal",
+			"char[]" };
+
+	private final String source;
+	private final String leafName;
+	private final int caretOffset;
+	private final int converterOffset;
+
+	private Corpus(String source, String leafName, int caretOffset, int converterOffset) {
+		this.source = source;
+		this.leafName = leafName;
+		this.caretOffset = caretOffset;
+		this.converterOffset = converterOffset;
+	}
+
+	/**
+	 * Creates a corpus with the given number of properties spread evenly over
+	 * {@code levels} classes.
+	 */
+	public static Corpus create(int properties, int levels, int fillerMethods) {
+		StringBuilder sb = new StringBuilder("package bench;\n\n");
+		int perLevel = Math.max(1, properties / levels);
+		int property = 0;
+		for (int level = 0; level < levels; level++) {
+			sb.append("class Level").append(level);
+			if (level > 0) {
+				sb.append(" extends Level").append(level - 1);
+			}
+			sb.append(" {\n");
+			int count = level == levels - 1 ? properties - property : Math.min(perLevel, properties - property);
+			for (int i = 0; i < count; i++, property++) {
+				String type = TYPES[property % TYPES.length];
+				String name = "Property" + property;
+				String getter = type.equals("boolean") ? "is" : "get";
+				sb.append("\tprivate ").append(type).append(" property").append(property).append(";\n");
+				sb.append("\tpublic ").append(type).append(' ').append(getter).append(name).append("() { return property")
+						.append(property).append("; }\n");
+				sb.append("\tpublic void set").append(name).append('(').append(type).append(" value) { this.property")
+						.append(property).append(" = value; }\n");
+			}
+			if (level > 0 && property > 0) {
+				String type = TYPES[0];
+				sb.append("\t@Override public void setProperty0(").append(type)
+						.append(" value) { super.setProperty0(value); }\n");
+			}
+			sb.append("}\n\n");
+		}
+		String leafName = "Level" + (levels - 1);
+
+		sb.append("class Usage {\n");
+		for (int i = 0; i < fillerMethods / 2; i++) {
+			appendFiller(sb, i);
+		}
+		sb.append("\tvoid target() {\n\t\t").append(leafName).append(" bean = new ").append(leafName)
+				.append("();\n");
+		int caretOffset = sb.lastIndexOf(" bean") + 1;
+		sb.append("\t}\n");
+		sb.append("\t").append(leafName).append(" convert(").append(leafName).append(" source) {\n");
+		int converterOffset = sb.length();
+		sb.append("\t}\n");
+		for (int i = fillerMethods / 2; i < fillerMethods; i++) {
+			appendFiller(sb, i);
+		}
+		sb.append("}\n");
+		return new Corpus(sb.toString(), leafName, caretOffset, converterOffset);
+	}
+
+	private static void appendFiller(StringBuilder sb, int i) {
+		sb.append("\tint filler").append(i).append("(java.util.List<String> list) {\n");
+		sb.append("\t\tint sum = 0;\n");
+		sb.append("\t\tfor (String s : list) {\n\t\t\tsum += s.length() * ").append(i).append(";\n\t\t}\n");
+		sb.append("\t\treturn sum;\n\t}\n");
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns the offset of the name of the local variable in {@code Usage}.
+	 */
+	public int getCaretOffset() {
+		return caretOffset;
+	}
+
+	/**
+	 * Returns an offset inside the body of the converter method in {@code Usage}.
+	 */
+	public int getConverterOffset() {
+		return converterOffset;
+	}
+
+	/**
+	 * Parses the corpus with the settings of
+	 * {@code HandlerHelper.parseCompilationUnit}, but against the running JVM's
+	 * class library instead of a Java project.
+	 *
+	 * @param focalPosition the focal position, or {@code -1} for a full parse
+	 */
+	public CompilationUnit parse(int focalPosition) {
+		return parse(UNIT_NAME, source, focalPosition);
+	}
+
+	/**
+	 * Parses the given source like {@link #parse(int)} parses a corpus.
+	 *
+	 * @param focalPosition the focal position, or {@code -1} for a full parse
+	 */
+	public static CompilationUnit parse(String unitName, String source, int focalPosition) {
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.VERSION_17, options);
+		parser.setCompilerOptions(options);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(source.toCharArray());
+		parser.setUnitName(unitName);
+		parser.setEnvironment(null, null, null, true);
+		parser.setResolveBindings(true);
+		if (focalPosition >= 0) {
+			parser.setFocalPosition(focalPosition);
+			parser.setStatementsRecovery(true);
+			parser.setBindingsRecovery(true);
+		}
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Returns the binding of the most derived class of the parsed corpus.
+	 */
+	public ITypeBinding leafType(CompilationUnit cu) {
+		for (Object type : cu.types()) {
+			AbstractTypeDeclaration decl = (AbstractTypeDeclaration) type;
+			if (decl.getName().getIdentifier().equals(leafName)) {
+				return decl.resolveBinding();
+			}
+		}
+		throw new IllegalStateException(leafName + " not found");
+	}
+}
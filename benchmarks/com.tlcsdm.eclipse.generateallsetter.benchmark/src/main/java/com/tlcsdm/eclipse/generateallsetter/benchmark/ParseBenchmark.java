@@ -0,0 +1,57 @@
+package com.tlcsdm.eclipse.generateallsetter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a full parse with binding resolution against a parse focused on the
+ * method containing the caret, as done by the handlers when no shared AST is
+ * available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "10", "200", "2000" })
+	public int properties;
+
+	@Param({ "1", "20" })
+	public int levels;
+
+	@Param({ "0", "500" })
+	public int fillerMethods;
+
+	private Corpus corpus;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		corpus = Corpus.create(properties, levels, fillerMethods);
+	}
+
+	@Benchmark
+	public CompilationUnit fullParse() {
+		return corpus.parse(-1);
+	}
+
+	@Benchmark
+	public CompilationUnit focusedParse() {
+		return corpus.parse(corpus.getCaretOffset());
+	}
+}
@@ -0,0 +1,87 @@
+package com.tlcsdm.eclipse.generateallsetter.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tlcsdm.eclipse.generateallsetter.handler.HandlerHelper;
+import com.tlcsdm.eclipse.generateallsetter.handler.SnippetWriter;
+
+/**
+ * Measures the emission of generated lines: writing them to a
+ * {@link SnippetWriter}, and the line-based edit creation alone and applied to
+ * a fresh in-memory document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnippetBenchmark {
+
+	@Param({ "10", "200", "2000" })
+	public int properties;
+
+	@Param({ "0", "500" })
+	public int fillerMethods;
+
+	private Corpus corpus;
+	private List<String> lines;
+	private IDocument document;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		corpus = Corpus.create(properties, 1, fillerMethods);
+		lines = new ArrayList<>(properties);
+		for (int i = 0; i < properties; i++) {
+			lines.add("bean.setProperty" + i + "(null);");
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void resetDocument() {
+		document = new Document(corpus.getSource());
+	}
+
+	@Benchmark
+	public String writeSnippet() {
+		SnippetWriter out = new SnippetWriter(properties);
+		try {
+			for (int i = 0; i < properties; i++) {
+				out.newLine().append("bean").append('.').append("setProperty").append(Integer.toString(i))
+						.append("(null);");
+			}
+			return out.getText();
+		} finally {
+			out.release();
+		}
+	}
+
+	@Benchmark
+	public Object createInsertEdit() throws BadLocationException {
+		return HandlerHelper.createInsertLinesEdit(document, corpus.getCaretOffset(), corpus.getCaretOffset(), lines);
+	}
+
+	@Benchmark
+	public IDocument insertLines() throws BadLocationException {
+		HandlerHelper.insertLinesAfterOffset(document, corpus.getCaretOffset(), lines);
+		return document;
+	}
+}
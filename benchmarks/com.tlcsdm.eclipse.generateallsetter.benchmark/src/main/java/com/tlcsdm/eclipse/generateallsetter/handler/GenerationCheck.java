@@ -0,0 +1,366 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jface.text.Document;
+
+import com.tlcsdm.eclipse.generateallsetter.benchmark.Corpus;
+
+/**
+ * Drives the handlers headlessly against small sources that use types of the
+ * running JVM's class library and checks the generated code line by line,
+ * where {@link RegressionCheck} only samples the output of the large fixture.
+ * Each check parses its source focused on the caret, as the handlers do when no
+ * shared AST is available, and applies the resulting edit to a fresh document.
+ * The run fails listing every check whose output differs from the expected
+ * lines.
+ */
+public final class GenerationCheck {
+
+	private static final String UNIT_NAME = "/check/src/check/Values.java";
+
+	private static final String VALUES = """
+			package check;
+
+			import java.math.BigDecimal;
+			import java.time.LocalDate;
+
+			class Builder {
+				private String name;
+				private int age;
+				private final String id = "";
+
+				Builder name(String name) { this.name = name; return this; }
+				Builder age(int age) { this.age = age; return this; }
+				Builder withId(String id) { return this; }
+				Builder merge(Builder other) { return this; }
+			}
+
+			interface Fluent {
+				String label();
+				Fluent label(String label);
+				Fluent scaled(int factor);
+			}
+
+			class Values {
+				void use(String text, BigDecimal amount, LocalDate date) {
+					String string = text;
+					BigDecimal decimal = amount;
+					LocalDate day = date;
+				}
+			}
+			""";
+
+	private static final String ORDERS = """
+			package check;
+
+			import java.math.BigDecimal;
+			import java.util.List;
+
+			class Order {
+				enum Status { NEW, DONE }
+
+				private BigDecimal total;
+				private List<String> tags;
+				private Status status;
+
+				void setTotal(BigDecimal total) { this.total = total; }
+				void setTags(List<String> tags) { this.tags = tags; }
+				void setStatus(Status status) { this.status = status; }
+			}
+
+			class Orders {
+				void use() {
+					Order order = new Order();
+				}
+			}
+			""";
+
+	private static final String PEOPLE = """
+			package check;
+
+			class Person {
+				private String name;
+				private int age;
+
+				String getName() { return name; }
+				int getAge() { return age; }
+			}
+
+			class People {
+				void use(Person a, Person b) {
+					String name = "";
+					Person first = a, second = b;
+				}
+			}
+			""";
+
+	private static final String GRAPH = """
+			package check;
+
+			class Root {
+				private X x;
+				private Z z;
+
+				void setX(X x) { this.x = x; }
+				void setZ(Z z) { this.z = z; }
+			}
+
+			class X {
+				private Y y;
+
+				void setY(Y y) { this.y = y; }
+			}
+
+			class Y {
+				private X x;
+
+				void setX(X x) { this.x = x; }
+			}
+
+			class Z {
+				private Y y;
+
+				void setY(Y y) { this.y = y; }
+			}
+
+			class Graph {
+				void use() {
+					X x = null;
+					Root root = new Root();
+				}
+			}
+			""";
+
+	private static final String TICKETS = """
+			package check;
+
+			class Ticket {
+				private final int id;
+
+				private Ticket(int id) { this.id = id; }
+
+				static Builder builder() { return new Builder(); }
+
+				static class Builder {
+					private int id;
+
+					Builder id(int id) { this.id = id; return this; }
+					Ticket build() { return new Ticket(id); }
+				}
+			}
+
+			class Holder {
+				private Ticket ticket;
+
+				void setTicket(Ticket ticket) { this.ticket = ticket; }
+			}
+
+			class Tickets {
+				void use() {
+					Holder holder = new Holder();
+				}
+			}
+			""";
+
+	private final List<String> failures = new ArrayList<>();
+	private int checks;
+
+	private GenerationCheck() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		GenerationCheck check = new GenerationCheck();
+		check.fluentSetters();
+		check.defaultValues();
+		check.localNames();
+		check.deepSetters();
+		check.builders();
+		if (!check.failures.isEmpty()) {
+			throw new IllegalStateException("Generation check failed:\n  " + String.join("\n  ", check.failures));
+		}
+		System.out.println(check.checks + " generation checks passed");
+	}
+
+	/**
+	 * Immutable value types return new instances from their one-arg methods;
+	 * only methods that set a mutable field, or a property of a type without
+	 * fields, are fluent setters.
+	 */
+	private void fluentSetters() throws Exception {
+		CompilationUnit cu = Corpus.parse(UNIT_NAME, VALUES, -1);
+		expectFluentSetters(cu, "Builder", "age", "name");
+		expectFluentSetters(cu, "Fluent", "label");
+		for (String variable : List.of("text", "amount", "date")) {
+			ITypeBinding type = parameterType(cu, variable);
+			expectFluentSetters(type.getQualifiedName(), AccessorCache.getIndex(type));
+		}
+
+		GenAllSetterNoDefaultHandler setters = new GenAllSetterNoDefaultHandler();
+		expectGenerated(setters, VALUES, "string = text", List.of());
+		expectGenerated(setters, VALUES, "day = date", List.of());
+		expectGenerated(setters, VALUES, "decimal = amount", List.of("decimal.setScale();"));
+	}
+
+	/**
+	 * Default values name the types they refer to; a parsed source has no
+	 * compilation unit to add imports to, so they are qualified, and a nested
+	 * enum is qualified by its enclosing type.
+	 */
+	private void defaultValues() throws Exception {
+		expectGenerated(new GenAllSetterWithDefaultHandler(), ORDERS, "order = new", List.of(
+				"order.setStatus(check.Order.Status.NEW);",
+				"order.setTags(new java.util.ArrayList<>());",
+				"order.setTotal(java.math.BigDecimal.ZERO);"));
+	}
+
+	/**
+	 * Locals declared for several variables in one edit are numbered past the
+	 * existing variables of the method and past each other.
+	 */
+	private void localNames() throws Exception {
+		expectGenerated(new GenAllGetterHandler(), PEOPLE, "Person first = a, second = b;", true, List.of(
+				"int age = first.getAge();",
+				"String name2 = first.getName();",
+				"int age2 = second.getAge();",
+				"String name3 = second.getName();"));
+	}
+
+	/**
+	 * A type left out under one parent because it is on the path is expanded
+	 * under another, and nested instances are not named like existing locals.
+	 * The source is parsed without a compilation unit, so the types are
+	 * qualified.
+	 */
+	private void deepSetters() throws Exception {
+		expectGenerated(new GenAllSetterDeepHandler(), GRAPH, "root = new", List.of(
+				"check.X x2 = new check.X();",
+				"check.Y y = new check.Y();",
+				"y.setX(null);",
+				"x2.setY(y);",
+				"root.setX(x2);",
+				"check.Z z = new check.Z();",
+				"check.Y y2 = new check.Y();",
+				"check.X x3 = new check.X();",
+				"x3.setY(null);",
+				"y2.setX(x3);",
+				"z.setY(y2);",
+				"root.setZ(z);"));
+	}
+
+	/**
+	 * A nested type with a builder is created through a chain of its fluent
+	 * setters, one per continuation line.
+	 */
+	private void builders() throws Exception {
+		expectGenerated(new GenAllSetterDeepHandler(), TICKETS, "holder = new", List.of(
+				"check.Ticket ticket = check.Ticket.builder()",
+				".id(0)",
+				".build();",
+				"holder.setTicket(ticket);"));
+	}
+
+	private void expectFluentSetters(CompilationUnit cu, String typeName, String... expected) {
+		for (Object o : cu.types()) {
+			AbstractTypeDeclaration type = (AbstractTypeDeclaration) o;
+			if (type.getName().getIdentifier().equals(typeName)) {
+				expectFluentSetters(typeName, AccessorCache.getIndex(type.resolveBinding()), expected);
+				return;
+			}
+		}
+		throw new IllegalStateException(typeName + " not found");
+	}
+
+	private void expectFluentSetters(String typeName, AccessorIndex index, String... expected) {
+		List<String> actual = new ArrayList<>();
+		for (IMethodBinding m : index.getFluentSetters()) {
+			actual.add(m.getName());
+		}
+		expect(typeName + " fluent setters", Arrays.asList(expected), actual);
+	}
+
+	private static ITypeBinding parameterType(CompilationUnit cu, String name) {
+		ITypeBinding[] type = new ITypeBinding[1];
+		cu.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(SingleVariableDeclaration node) {
+				if (node.getName().getIdentifier().equals(name)) {
+					type[0] = node.getType().resolveBinding();
+				}
+				return false;
+			}
+		});
+		if (type[0] == null) {
+			throw new IllegalStateException("parameter " + name + " not found");
+		}
+		return type[0];
+	}
+
+	private void expectGenerated(AbstractVariableGenerateHandler handler, String source, String caret,
+			List<String> expected) throws Exception {
+		expectGenerated(handler, source, caret, false, expected);
+	}
+
+	/**
+	 * Runs a handler on the variable declared by the first occurrence of
+	 * {@code caret}, or on the variables declared in it if it is a
+	 * {@code selection}, and compares the inserted lines, trimmed, with the
+	 * expected ones.
+	 */
+	private void expectGenerated(AbstractVariableGenerateHandler handler, String source, String caret,
+			boolean selection, List<String> expected) throws Exception {
+		int offset = source.indexOf(caret);
+		if (offset < 0) {
+			throw new IllegalStateException(caret + " not found");
+		}
+		AccessorCache.clear();
+		// a selection needs the whole AST
+		CompilationUnit cu = Corpus.parse(UNIT_NAME, source, selection ? -1 : offset);
+		Document doc = new Document(source);
+		AbstractGenerateHandler.DocumentEdit edit = handler.generate(cu, offset, selection ? caret.length() : 0,
+				null);
+		if (edit != null) {
+			edit.apply(doc);
+		}
+		expect(handler.getClass().getSimpleName() + " at '" + caret + "'", expected,
+				insertedLines(source, doc.get()));
+	}
+
+	/**
+	 * Returns the lines between the common leading and trailing lines of two
+	 * texts, trimmed.
+	 */
+	private static List<String> insertedLines(String before, String after) {
+		List<String> old = before.lines().toList();
+		List<String> lines = after.lines().toList();
+		int head = 0;
+		while (head < old.size() && head < lines.size() && old.get(head).equals(lines.get(head))) {
+			head++;
+		}
+		int tail = 0;
+		while (tail < old.size() - head && tail < lines.size() - head
+				&& old.get(old.size() - 1 - tail).equals(lines.get(lines.size() - 1 - tail))) {
+			tail++;
+		}
+		List<String> inserted = new ArrayList<>();
+		for (String line : lines.subList(head, lines.size() - tail)) {
+			inserted.add(line.trim());
+		}
+		return inserted;
+	}
+
+	private void expect(String name, Object expected, Object actual) {
+		checks++;
+		if (!expected.equals(actual)) {
+			failures.add(name + ": expected " + expected + " but got " + actual);
+		}
+	}
+}
@@ -0,0 +1,312 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+import com.tlcsdm.eclipse.generateallsetter.benchmark.Corpus;
+
+/**
+ * Drives the handlers headlessly against a synthetic 1,000-property fixture and
+ * compares their latency with a stored baseline. Each invocation acquires the
+ * AST through the handler's own {@link AstProvider} path with no shared AST
+ * available, so that the fixture is parsed focused on the caret as in the IDE,
+ * runs the handler's generation on it with a cold {@link AccessorCache},
+ * applies the resulting edit to a fresh document and checks the inserted code.
+ * <p>
+ * Wall-clock time, allocated bytes and the AST parses done by the handler are
+ * reported per invocation. Outside the IDE the parse is dominated by loading
+ * the JDK class library, so its time and allocations are recorded apart from
+ * those of the generation. Absolute times depend on the machine and are only
+ * reported; the generation latency is gated as a ratio to a calibration
+ * workload timed in the same run. The check fails when a handler parses more
+ * often than in the baseline, or when its latency ratio or its allocations
+ * exceed the baseline by more than the configured tolerances. The ratio is the
+ * median of {@value #RUNS} runs and varies by up to about 15% between runs on
+ * the same machine, hence its default tolerance of 25%; a case whose ratio
+ * exceeds it is measured again, with a new calibration, up to
+ * {@value #RETRIES} times before the check fails, so that a load spike on the
+ * machine does not fail the build. With
+ * {@code -Dregression.update=true} the measurements are written as the new
+ * baseline instead.
+ */
+public final class RegressionCheck {
+
+	private static final int PROPERTIES = 1000;
+	private static final int LEVELS = 5;
+	private static final int FILLER_METHODS = 200;
+	private static final int WARMUP = 5;
+	private static final int RUNS = 15;
+	private static final int RETRIES = 2;
+	private static final int CALIBRATION_SIZE = 1 << 20;
+	private static final String TOLERANCE = "tolerance";
+	private static final String ALLOCATION_TOLERANCE = "allocation.tolerance";
+	private static final double MEGABYTE = 1024.0 * 1024.0;
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	private RegressionCheck() {
+	}
+
+	/**
+	 * One handler invocation on the fixture, returning the document after the
+	 * generated code was inserted.
+	 */
+	@FunctionalInterface
+	private interface Invocation {
+		Document run(Corpus corpus, AstProvider.AstSource source) throws Exception;
+	}
+
+	/**
+	 * Parses the fixture as the IDE does when there is no shared AST, recording
+	 * the time and the allocations of the parses.
+	 */
+	private static final class CorpusSource implements AstProvider.AstSource {
+
+		private final Corpus corpus;
+		private long nanos;
+		private long allocatedBytes;
+
+		CorpusSource(Corpus corpus) {
+			this.corpus = corpus;
+		}
+
+		@Override
+		public CompilationUnit getShared(IProgressMonitor monitor) {
+			return null;
+		}
+
+		@Override
+		public CompilationUnit parse(int focalPosition, IProgressMonitor monitor) {
+			long bytes = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			CompilationUnit cu = corpus.parse(focalPosition);
+			nanos += System.nanoTime() - start;
+			allocatedBytes += THREADS.getCurrentThreadAllocatedBytes() - bytes;
+			return cu;
+		}
+	}
+
+	private record Case(String name, int expectedLines, String expectedText, Invocation invocation) {
+	}
+
+	/**
+	 * The medians of one handler; {@code ratio} is the generation latency as a
+	 * multiple of the calibration workload, {@code parses} the number of parses
+	 * per invocation.
+	 */
+	private record Measurement(String name, double parseMillis, double medianMillis, double ratio,
+			long allocatedBytes, double parses) {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path baselineFile = Path.of(args.length > 0 ? args[0] : "baseline.properties");
+		boolean update = Boolean.getBoolean("regression.update");
+		Corpus corpus = Corpus.create(PROPERTIES, LEVELS, FILLER_METHODS);
+
+		List<Case> cases = List.of(
+				new Case("getter", PROPERTIES, "bean.getProperty999();",
+						variableHandler(new GenAllGetterHandler(), corpus.getCaretOffset())),
+				new Case("setterNoDefault", PROPERTIES, "bean.setProperty999();",
+						variableHandler(new GenAllSetterNoDefaultHandler(), corpus.getCaretOffset())),
+				new Case("setterWithDefault", PROPERTIES, "bean.setProperty4(\"\");",
+						variableHandler(new GenAllSetterWithDefaultHandler(), corpus.getCaretOffset())),
+				new Case("converter", PROPERTIES + 2, "level4.setProperty999(source.getProperty999());",
+						converterHandler(new GenSettergetterConverterHandler(), corpus.getConverterOffset())));
+
+		double calibrationMillis = calibrate();
+		List<Measurement> measurements = new ArrayList<>();
+		for (Case c : cases) {
+			measurements.add(measure(corpus, c, calibrationMillis));
+		}
+
+		System.out.printf(Locale.ROOT, "calibration %.2f ms%n", calibrationMillis);
+		System.out.printf(Locale.ROOT, "%-20s %10s %12s %8s %14s %8s%n", "handler", "parse ms", "generate ms",
+				"ratio", "alloc MB/op", "parses");
+		for (Measurement m : measurements) {
+			System.out.printf(Locale.ROOT, "%-20s %10.2f %12.2f %8.3f %14.2f %8.1f%n", m.name(), m.parseMillis(),
+					m.medianMillis(), m.ratio(), m.allocatedBytes() / MEGABYTE, m.parses());
+		}
+
+		Properties baseline = new Properties();
+		if (update) {
+			baseline.setProperty(TOLERANCE, "0.25");
+			baseline.setProperty(ALLOCATION_TOLERANCE, "0.25");
+			if (Files.exists(baselineFile)) {
+				try (InputStream in = Files.newInputStream(baselineFile)) {
+					baseline.load(in);
+				}
+			}
+			baseline.setProperty("calibration.millis", String.format(Locale.ROOT, "%.2f", calibrationMillis));
+			for (Measurement m : measurements) {
+				baseline.setProperty(m.name() + ".millis", String.format(Locale.ROOT, "%.2f", m.medianMillis()));
+				baseline.setProperty(m.name() + ".ratio", String.format(Locale.ROOT, "%.4f", m.ratio()));
+				baseline.setProperty(m.name() + ".allocMB",
+						String.format(Locale.ROOT, "%.2f", m.allocatedBytes() / MEGABYTE));
+				baseline.setProperty(m.name() + ".parses", String.format(Locale.ROOT, "%.1f", m.parses()));
+			}
+			try (OutputStream out = Files.newOutputStream(baselineFile)) {
+				baseline.store(out, "Medians per handler invocation on the " + PROPERTIES
+						+ "-property fixture, see RegressionCheck; millis are informational");
+			}
+			System.out.println("Baseline written to " + baselineFile.toAbsolutePath());
+			return;
+		}
+
+		if (!Files.exists(baselineFile)) {
+			throw new IllegalStateException(
+					"No baseline at " + baselineFile.toAbsolutePath() + ", run with -Dregression.update=true first");
+		}
+		try (InputStream in = Files.newInputStream(baselineFile)) {
+			baseline.load(in);
+		}
+		double tolerance = Double.parseDouble(baseline.getProperty(TOLERANCE, "0.25"));
+		double allocationTolerance = Double.parseDouble(baseline.getProperty(ALLOCATION_TOLERANCE, "0.25"));
+		List<String> regressions = new ArrayList<>();
+		for (int i = 0; i < cases.size(); i++) {
+			Measurement m = measurements.get(i);
+			String ratio = baseline.getProperty(m.name() + ".ratio");
+			String allocation = baseline.getProperty(m.name() + ".allocMB");
+			String parses = baseline.getProperty(m.name() + ".parses");
+			if (ratio == null || allocation == null || parses == null) {
+				regressions.add(m.name() + ": no baseline");
+				continue;
+			}
+			if (m.parses() > Double.parseDouble(parses)) {
+				regressions.add(String.format(Locale.ROOT, "%s: %.1f parses per invocation exceed %s", m.name(),
+						m.parses(), parses));
+			}
+			double ratioLimit = Double.parseDouble(ratio) * (1 + tolerance);
+			for (int retry = 0; retry < RETRIES && m.ratio() > ratioLimit; retry++) {
+				// a load spike on the machine can outlast all runs of a case, so measure again before failing
+				System.out.printf(Locale.ROOT, "%s: %.3f times the calibration exceeds %.3f, measuring again%n",
+						m.name(), m.ratio(), ratioLimit);
+				Measurement again = measure(corpus, cases.get(i), calibrate());
+				if (again.ratio() < m.ratio()) {
+					m = again;
+				}
+			}
+			if (m.ratio() > ratioLimit) {
+				regressions.add(String.format(Locale.ROOT, "%s: %.3f times the calibration exceeds %.3f", m.name(),
+						m.ratio(), ratioLimit));
+			}
+			double allocationLimit = Double.parseDouble(allocation) * (1 + allocationTolerance);
+			if (m.allocatedBytes() / MEGABYTE > allocationLimit) {
+				regressions.add(String.format(Locale.ROOT, "%s: %.2f MB allocated exceeds %.2f MB", m.name(),
+						m.allocatedBytes() / MEGABYTE, allocationLimit));
+			}
+		}
+		if (!regressions.isEmpty()) {
+			throw new IllegalStateException("Performance regression:\n  " + String.join("\n  ", regressions));
+		}
+	}
+
+	private static Invocation variableHandler(AbstractVariableGenerateHandler handler, int offset) {
+		return (corpus, source) -> apply(corpus, handler.generate(source, caret(offset), null));
+	}
+
+	private static Invocation converterHandler(GenSettergetterConverterHandler handler, int offset) {
+		return (corpus, source) -> apply(corpus, handler.generate(source, caret(offset), null));
+	}
+
+	private static IRegion[] caret(int offset) {
+		return new IRegion[] { new Region(offset, 0) };
+	}
+
+	private static Document apply(Corpus corpus, AbstractGenerateHandler.DocumentEdit edit) throws Exception {
+		Document doc = new Document(corpus.getSource());
+		if (edit != null) {
+			edit.apply(doc);
+		}
+		return doc;
+	}
+
+	/**
+	 * Returns the median time of sorting a fixed pseudo-random array, a workload
+	 * that scales with the speed of the machine like the generation does.
+	 */
+	private static double calibrate() {
+		int[] data = new int[CALIBRATION_SIZE];
+		long[] nanos = new long[RUNS];
+		for (int i = -WARMUP; i < RUNS; i++) {
+			long seed = 1;
+			for (int j = 0; j < data.length; j++) {
+				seed = seed * 6364136223846793005L + 1442695040888963407L;
+				data[j] = (int) (seed >>> 33);
+			}
+			long start = System.nanoTime();
+			Arrays.sort(data);
+			if (i >= 0) {
+				nanos[i] = System.nanoTime() - start;
+			}
+		}
+		return median(nanos) / 1e6;
+	}
+
+	private static Measurement measure(Corpus corpus, Case c, double calibrationMillis) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			invoke(corpus, c);
+		}
+		long[] parseNanos = new long[RUNS];
+		long[] generateNanos = new long[RUNS];
+		long allocated = 0;
+		long parses = 0;
+		for (int i = 0; i < RUNS; i++) {
+			AccessorCache.clear();
+			CorpusSource source = new CorpusSource(corpus);
+			long parsesBefore = AstProvider.getParses();
+			long bytes = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			Document doc = c.invocation().run(corpus, source);
+			long elapsed = System.nanoTime() - start;
+			allocated += THREADS.getCurrentThreadAllocatedBytes() - bytes - source.allocatedBytes;
+			parses += AstProvider.getParses() - parsesBefore;
+			parseNanos[i] = source.nanos;
+			generateNanos[i] = elapsed - source.nanos;
+			verify(corpus, c, doc);
+		}
+		double medianMillis = median(generateNanos) / 1e6;
+		return new Measurement(c.name(), median(parseNanos) / 1e6, medianMillis, medianMillis / calibrationMillis,
+				allocated / RUNS, (double) parses / RUNS);
+	}
+
+	private static void invoke(Corpus corpus, Case c) throws Exception {
+		AccessorCache.clear();
+		verify(corpus, c, c.invocation().run(corpus, new CorpusSource(corpus)));
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	/**
+	 * Checks the number of inserted lines and the presence of a sample line.
+	 */
+	private static void verify(Corpus corpus, Case c, Document doc) {
+		int inserted = doc.getNumberOfLines() - new Document(corpus.getSource()).getNumberOfLines();
+		if (inserted != c.expectedLines()) {
+			throw new IllegalStateException(
+					c.name() + ": expected " + c.expectedLines() + " inserted lines but got " + inserted);
+		}
+		if (!doc.get().contains(c.expectedText())) {
+			throw new IllegalStateException(c.name() + ": missing generated line '" + c.expectedText() + "'");
+		}
+	}
+}
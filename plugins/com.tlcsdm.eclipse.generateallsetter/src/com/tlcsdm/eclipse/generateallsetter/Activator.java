@@ -1,16 +1,35 @@
 package com.tlcsdm.eclipse.generateallsetter;
 
+import java.util.Hashtable;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ImageRegistry;
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.osgi.service.debug.DebugOptionsListener;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+import com.tlcsdm.eclipse.generateallsetter.handler.AccessorCache;
+import com.tlcsdm.eclipse.generateallsetter.handler.DefaultValueProviders;
+import com.tlcsdm.eclipse.generateallsetter.handler.Metrics;
+import com.tlcsdm.eclipse.generateallsetter.handler.SignatureIndex;
+import com.tlcsdm.eclipse.generateallsetter.handler.WarmUpService;
 
-public class Activator extends AbstractUIPlugin {
+public class Activator extends AbstractUIPlugin implements DebugOptionsListener {
 	/** The plug-in ID */
 	public static final String PLUGIN_ID = "com.tlcsdm.eclipse.generateallsetter"; //$NON-NLS-1$
 
+	/** The image registry key of the icon of the generate proposals */
+	public static final String IMG_GENERATE = "generate"; //$NON-NLS-1$
+
 	// The shared instance
 	private static Activator plugin;
 
+	private ServiceRegistration<DebugOptionsListener> debugRegistration;
+
 	/**
 	 * The constructor
 	 */
@@ -36,6 +55,12 @@ public class Activator extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		JavaCore.addElementChangedListener(AccessorCache.LISTENER,
+				ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		Hashtable<String, String> properties = new Hashtable<>();
+		properties.put(DebugOptions.LISTENER_SYMBOLICNAME, PLUGIN_ID);
+		debugRegistration = context.registerService(DebugOptionsListener.class, this, properties);
+		WarmUpService.start();
 	}
 
 	/*
@@ -46,10 +71,32 @@ public class Activator extends AbstractUIPlugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		if (debugRegistration != null) {
+			debugRegistration.unregister();
+			debugRegistration = null;
+		}
+		WarmUpService.shutdown();
+		Metrics.setTrace(null);
+		JavaCore.removeElementChangedListener(AccessorCache.LISTENER);
+		AccessorCache.clear();
+		DefaultValueProviders.reset();
+		SignatureIndex.clear();
 		plugin = null;
 		super.stop(context);
 	}
 
+	@Override
+	public void optionsChanged(DebugOptions options) {
+		boolean perf = options.getBooleanOption(PLUGIN_ID + "/debug", false) //$NON-NLS-1$
+				&& options.getBooleanOption(PLUGIN_ID + Metrics.TRACE_OPTION, false);
+		Metrics.setTrace(perf ? options.newDebugTrace(PLUGIN_ID) : null);
+	}
+
+	@Override
+	protected void initializeImageRegistry(ImageRegistry registry) {
+		registry.put(IMG_GENERATE, getImageDescriptor("icons/icon16.png")); //$NON-NLS-1$
+	}
+
 	public static ImageDescriptor getImageDescriptor(String path) {
 		return imageDescriptorFromPlugin(PLUGIN_ID, path);
 	}
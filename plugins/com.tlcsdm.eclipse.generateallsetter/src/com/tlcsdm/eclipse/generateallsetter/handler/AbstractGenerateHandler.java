@@ -0,0 +1,163 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.handlers.HandlerUtil;
+import org.eclipse.ui.texteditor.IEditorStatusLine;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+/**
+ * Base class for the code generation handlers. The editor context is captured
+ * on the display thread, the code is generated in a cancellable background
+ * {@link Job}, and only the resulting document edit is applied back on the
+ * display thread. The edit is discarded if the document was modified while the
+ * job was running, which is reported in the editor's status line and counted
+ * as {@link Metrics.Counter#DISCARDED_EDITS}.
+ */
+public abstract class AbstractGenerateHandler extends AbstractHandler {
+
+	private final String jobName;
+
+	protected AbstractGenerateHandler(String jobName) {
+		this.jobName = jobName;
+	}
+
+	/**
+	 * An edit computed in the background and applied to the document on the
+	 * display thread.
+	 */
+	@FunctionalInterface
+	public interface DocumentEdit {
+		void apply(IDocument document) throws BadLocationException;
+	}
+
+	/**
+	 * Returns the name of the command, which is also the name of its job.
+	 */
+	public String getName() {
+		return jobName;
+	}
+
+	@Override
+	public Object execute(ExecutionEvent event) throws ExecutionException {
+		Metrics.Invocation invocation = Metrics.start(jobName);
+		long start = invocation.begin();
+		HandlerHelper.EditorContext ctx = HandlerHelper.getEditorContext(HandlerUtil.getActiveEditor(event));
+		invocation.end(Metrics.Phase.CONTEXT, start);
+		if (ctx == null) {
+			return null;
+		}
+
+		Display display = ctx.textEditor().getSite().getShell().getDisplay();
+		ChangeTracker tracker = new ChangeTracker(ctx.textEditor(), ctx.document());
+		Job job = new Job(jobName) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				DocumentEdit edit = null;
+				invocation.attach();
+				try {
+					edit = generate(ctx, monitor);
+					return Status.OK_STATUS;
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} catch (Exception e) {
+					HandlerHelper.logError("Unexpected error running '" + jobName + "'", e);
+					return Status.OK_STATUS;
+				} finally {
+					invocation.detach();
+					DocumentEdit result = monitor.isCanceled() ? null : edit;
+					if (!display.isDisposed()) {
+						display.asyncExec(() -> tracker.finish(result, invocation));
+					} else {
+						tracker.dispose();
+					}
+				}
+			}
+		};
+		job.setUser(true);
+		job.setPriority(Job.SHORT);
+		job.schedule();
+		return null;
+	}
+
+	/**
+	 * Generates the code for the given editor context. Called outside the display
+	 * thread; implementations must not touch widgets, should report progress to
+	 * and honour cancellation of {@code monitor}, and should only read the
+	 * document from within the returned edit.
+	 *
+	 * @return the edit to apply, or {@code null} if there is nothing to insert
+	 */
+	protected abstract DocumentEdit generate(HandlerHelper.EditorContext ctx, IProgressMonitor monitor)
+			throws Exception;
+
+	/**
+	 * Records whether the document changed between the command invocation and
+	 * the application of the generated edit.
+	 */
+	private final class ChangeTracker implements IDocumentListener {
+		private final ITextEditor editor;
+		private final IDocument document;
+		private volatile boolean changed;
+
+		ChangeTracker(ITextEditor editor, IDocument document) {
+			this.editor = editor;
+			this.document = document;
+			document.addDocumentListener(this);
+		}
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+			changed = true;
+		}
+
+		@Override
+		public void documentChanged(DocumentEvent event) {
+		}
+
+		/**
+		 * Stops tracking the document. Need not be called on the display thread.
+		 */
+		void dispose() {
+			document.removeDocumentListener(this);
+		}
+
+		void finish(DocumentEdit edit, Metrics.Invocation invocation) {
+			dispose();
+			if (edit == null) {
+				invocation.finish();
+				return;
+			}
+			if (changed) {
+				HandlerHelper.logWarning("Discarded generated code because the document changed meanwhile", null);
+				invocation.count(Metrics.Counter.DISCARDED_EDITS, 1);
+				invocation.finish();
+				IEditorStatusLine statusLine = editor.getAdapter(IEditorStatusLine.class);
+				if (statusLine != null) {
+					statusLine.setMessage(true, jobName + ": the document changed meanwhile, nothing was inserted",
+							null);
+				}
+				return;
+			}
+			long start = invocation.begin();
+			try {
+				edit.apply(document);
+			} catch (BadLocationException | RuntimeException e) {
+				HandlerHelper.logError("Failed to insert generated code", e);
+			}
+			invocation.end(Metrics.Phase.APPLY, start);
+			invocation.finish();
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+import com.tlcsdm.eclipse.generateallsetter.preferences.PreferenceConstants;
+
+/**
+ * Base class for handlers that call every setter of a variable, one line per
+ * setter rendered with {@link #template()}. For a type without setters, such as
+ * a builder, its fluent setters are called instead.
+ * <p>
+ * If {@link PreferenceConstants#MISSING_SETTERS_ONLY} is set, which it is not
+ * by default, setters that are already called on the variable in the block it
+ * is declared in are skipped.
+ * The existing calls are collected in one pass over the block into a set of
+ * method keys. The setters are taken in the order in which they are generated,
+ * which is by name within each type of the hierarchy, not by source position,
+ * and each missing setter is inserted after the call of the setter preceding
+ * it in that order, so regenerating after setters were added only inserts the
+ * new ones, next to their neighbors by name.
+ */
+public abstract class AbstractSetterGenerateHandler extends AbstractVariableGenerateHandler {
+
+	protected AbstractSetterGenerateHandler(String jobName) {
+		super(jobName);
+	}
+
+	/**
+	 * Returns the template of a setter call.
+	 */
+	protected abstract Template template();
+
+	@Override
+	protected void emit(String varName, ITypeBinding type, TypeNames types, LocalNames locals,
+			SnippetWriter out) {
+		Template template = template();
+		AccessorIndex index = AccessorCache.getIndex(type);
+		List<AccessorIndex.Accessor> accessors = index.getAccessors();
+		out.expectLines(accessors.size());
+		Template.Context ctx = new Template.Context().types(types).locals(locals).var(varName);
+		boolean needsGetter = template.uses(Template.Variable.GETTER);
+		AccessorIndex.Kind kind = setterKind(index);
+		for (AccessorIndex.Accessor a : accessors) {
+			if (a.kind() == kind) {
+				render(template, index, a, needsGetter, ctx, out);
+			}
+		}
+	}
+
+	@Override
+	void insert(VariableDeclaration declaration, Statement statement, Block block, StatementRewriter rewriter,
+			SnippetWriter out) {
+		Activator activator = Activator.getDefault();
+		if (activator == null || !activator.getPreferenceStore().getBoolean(PreferenceConstants.MISSING_SETTERS_ONLY)) {
+			super.insert(declaration, statement, block, rewriter, out);
+			return;
+		}
+		ITypeBinding type = HandlerHelper.resolveType(declaration);
+		if (type == null) {
+			return;
+		}
+		Metrics.Invocation invocation = Metrics.current();
+		long start = invocation.begin();
+		ASTNode scope = statement != null ? statement.getParent() : block;
+		String varName = declaration.getName().getIdentifier();
+		SetterCallCollector calls = new SetterCallCollector(scope, varName, declaration.resolveBinding());
+		scope.accept(calls);
+		invocation.end(Metrics.Phase.FIND, start);
+
+		start = invocation.begin();
+		Template template = template();
+		AccessorIndex index = AccessorCache.getIndex(type);
+		Template.Context ctx = new Template.Context().types(rewriter.getTypeNames())
+				.locals(rewriter.getLocalNames(declaration)).var(varName);
+		boolean needsGetter = template.uses(Template.Variable.GETTER);
+		Statement anchor = statement;
+		int lines = 0;
+		out.reset();
+		AccessorIndex.Kind kind = setterKind(index);
+		for (AccessorIndex.Accessor a : index.getAccessors()) {
+			if (a.kind() != kind) {
+				continue;
+			}
+			String key = SetterCallCollector.keyOf(a.method());
+			if (!calls.isCalled(key, a.method().getName())) {
+				render(template, index, a, needsGetter, ctx, out);
+				continue;
+			}
+			Statement call = calls.getStatement(key, a.method().getName());
+			if (call != null && call != anchor) {
+				lines += flush(anchor, block, rewriter, out);
+				anchor = call;
+			}
+		}
+		lines += flush(anchor, block, rewriter, out);
+		invocation.count(Metrics.Counter.LINES_EMITTED, lines);
+		invocation.end(Metrics.Phase.EMIT, start);
+	}
+
+	/**
+	 * Returns the kind of the setters to call: the fluent setters if the type has
+	 * no plain setters.
+	 */
+	private static AccessorIndex.Kind setterKind(AccessorIndex index) {
+		return index.getSetters().isEmpty() ? AccessorIndex.Kind.FLUENT_SETTER : AccessorIndex.Kind.SETTER;
+	}
+
+	private static void render(Template template, AccessorIndex index, AccessorIndex.Accessor setter,
+			boolean needsGetter, Template.Context ctx, SnippetWriter out) {
+		AccessorIndex.Accessor getter = needsGetter ? index.getGetter(setter.property()) : null;
+		ctx.property(setter.property(), setter.method(), getter == null ? null : getter.method(),
+				setter.method().getParameterTypes()[0], null);
+		template.render(out, ctx);
+	}
+
+	/**
+	 * Inserts the pending lines after {@code anchor}, or first in {@code block} if
+	 * there is no anchor, and returns their number.
+	 */
+	private static int flush(Statement anchor, Block block, StatementRewriter rewriter, SnippetWriter out) {
+		int lines = out.getLineCount();
+		if (anchor != null) {
+			rewriter.insertAfter(anchor, out);
+		} else {
+			rewriter.insertFirst(block, out);
+		}
+		out.reset();
+		return lines;
+	}
+
+	/**
+	 * Collects the methods called on a variable within a statement list, keyed by
+	 * {@link #keyOf(IMethodBinding)}, together with the statement of the list that
+	 * contains the last call of each.
+	 */
+	static final class SetterCallCollector extends ASTVisitor {
+		private final ASTNode scope;
+		private final String varName;
+		private final IVariableBinding variable;
+		private final Set<String> called = new HashSet<>();
+		private final Map<String, Statement> statements = new HashMap<>();
+
+		SetterCallCollector(ASTNode scope, String varName, IVariableBinding variable) {
+			this.scope = scope;
+			this.varName = varName;
+			this.variable = variable;
+		}
+
+		/**
+		 * Returns the key of a method that is the same for all invocations of it,
+		 * whatever the type arguments of its declaring type.
+		 */
+		static String keyOf(IMethodBinding method) {
+			String key = method.getMethodDeclaration().getKey();
+			return key != null ? key : method.getName();
+		}
+
+		@Override
+		public boolean visit(MethodInvocation node) {
+			if (node.getExpression() instanceof SimpleName receiver && varName.equals(receiver.getIdentifier())
+					&& isVariable(receiver)) {
+				IMethodBinding method = node.resolveMethodBinding();
+				String key = method != null ? keyOf(method) : node.getName().getIdentifier();
+				called.add(key);
+				Statement statement = enclosingStatement(node);
+				if (statement != null) {
+					statements.put(key, statement);
+				}
+			}
+			return true;
+		}
+
+		private boolean isVariable(SimpleName receiver) {
+			if (variable == null) {
+				return true;
+			}
+			return receiver.resolveBinding() instanceof IVariableBinding binding && binding.isEqualTo(variable);
+		}
+
+		/**
+		 * Returns the statement that is a direct child of the scope and contains the
+		 * given node.
+		 */
+		private Statement enclosingStatement(ASTNode node) {
+			ASTNode current = node;
+			while (current != null && current.getParent() != scope) {
+				current = current.getParent();
+			}
+			return current instanceof Statement statement && StatementRewriter.isListElement(statement) ? statement
+					: null;
+		}
+
+		/**
+		 * Returns whether the method with the given key is called, or a method of the
+		 * given name in a call that could not be resolved.
+		 */
+		boolean isCalled(String key, String name) {
+			return called.contains(key) || called.contains(name);
+		}
+
+		Statement getStatement(String key, String name) {
+			Statement statement = statements.get(key);
+			return statement != null ? statement : statements.get(name);
+		}
+	}
+}
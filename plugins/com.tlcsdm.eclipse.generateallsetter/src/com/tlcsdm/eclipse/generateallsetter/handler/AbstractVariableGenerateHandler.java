@@ -0,0 +1,235 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CatchClause;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TryStatement;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+/**
+ * Base class for handlers that generate code for local variables. With a plain
+ * caret the variable declared at the caret is used; besides local variables
+ * this may be a method, catch, {@code for} or lambda parameter or a
+ * try-with-resources variable, whose code goes first into the block it is
+ * declared for. With a non-empty selection,
+ * or with the caret on a method header, every local variable declared in the
+ * selection or method is processed. With several carets or a block selection,
+ * every region is handled that way, all from a single AST. The generated
+ * statements are inserted after the declaring statements through a
+ * {@link StatementRewriter} and applied as one edit with a single undo step.
+ */
+public abstract class AbstractVariableGenerateHandler extends AbstractGenerateHandler {
+
+	protected AbstractVariableGenerateHandler(String jobName) {
+		super(jobName);
+	}
+
+	/**
+	 * Writes the lines to insert for a variable of the given name and type to
+	 * {@code out}, possibly none, referring to types by the names {@code types}
+	 * returns and naming declared local variables through {@code locals}.
+	 */
+	protected abstract void emit(String varName, ITypeBinding type, TypeNames types, LocalNames locals,
+			SnippetWriter out);
+
+	@Override
+	protected DocumentEdit generate(HandlerHelper.EditorContext ctx, IProgressMonitor monitor) {
+		return generate(AstProvider.sourceOf(ctx.compilationUnit()), ctx.regions(), monitor);
+	}
+
+	/**
+	 * Acquires the AST from the given source and generates the code for the
+	 * given regions of it.
+	 */
+	DocumentEdit generate(AstProvider.AstSource source, IRegion[] regions, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 3);
+		// a focused AST only has the body of the member around the caret
+		int focalPosition = regions.length > 1 || regions[0].getLength() > 0 ? -1 : regions[0].getOffset();
+		CompilationUnit cu = AstProvider.acquire(source, focalPosition, subMonitor.split(2)).ast();
+		return generate(cu, regions, subMonitor.split(1));
+	}
+
+	/**
+	 * Generates the code for the given selection of an already acquired AST. For
+	 * an empty selection a focused AST is sufficient.
+	 */
+	DocumentEdit generate(CompilationUnit cu, int offset, int length, IProgressMonitor monitor) {
+		return generate(cu, new IRegion[] { new Region(offset, length) }, monitor);
+	}
+
+	/**
+	 * Generates the code for all regions of a multi or block selection of an
+	 * already acquired AST as one edit, which is applied as a single change. A
+	 * variable selected by several regions is processed once.
+	 */
+	DocumentEdit generate(CompilationUnit cu, IRegion[] regions, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, regions.length);
+		StatementRewriter rewriter = new StatementRewriter(cu);
+		SnippetWriter out = new SnippetWriter(0);
+		out.setContinuationIndent(HandlerHelper.getContinuationIndent(cu));
+		Set<VariableDeclaration> processed = Collections.newSetFromMap(new IdentityHashMap<>());
+		try {
+			for (IRegion region : regions) {
+				insert(cu, region.getOffset(), region.getLength(), processed, rewriter, out, subMonitor.split(1));
+			}
+		} finally {
+			out.release();
+		}
+		if (rewriter.isEmpty()) {
+			return null;
+		}
+		return doc -> HandlerHelper.applyEdit(doc, rewriter.createEdit(doc));
+	}
+
+	/**
+	 * Records the code for the variables of one selection region on
+	 * {@code rewriter}, skipping those in {@code processed}.
+	 */
+	private void insert(CompilationUnit cu, int offset, int length, Set<VariableDeclaration> processed,
+			StatementRewriter rewriter, SnippetWriter out, IProgressMonitor monitor) {
+		Metrics.Invocation invocation = Metrics.current();
+		long start = invocation.begin();
+		if (length > 0) {
+			HandlerHelper.LocalVariableCollector collector = new HandlerHelper.LocalVariableCollector(offset,
+					offset + length);
+			cu.accept(collector);
+			invocation.end(Metrics.Phase.FIND, start);
+			insertAfterStatements(collector.getFragments(), processed, rewriter, out, monitor);
+			return;
+		}
+
+		VariableDeclaration declaration = DeclarationIndex.findVariable(cu, offset);
+		if (declaration == null) {
+			MethodDeclaration method = findMethodByHeader(cu, offset);
+			if (method == null) {
+				invocation.end(Metrics.Phase.FIND, start);
+				return;
+			}
+			HandlerHelper.LocalVariableCollector collector = new HandlerHelper.LocalVariableCollector(
+					method.getStartPosition(), method.getStartPosition() + method.getLength());
+			method.accept(collector);
+			invocation.end(Metrics.Phase.FIND, start);
+			insertAfterStatements(collector.getFragments(), processed, rewriter, out, monitor);
+			return;
+		}
+		invocation.end(Metrics.Phase.FIND, start);
+		if (!processed.add(declaration)) {
+			return;
+		}
+
+		Block block = null;
+		Statement statement = null;
+		if (declaration.getParent() instanceof Statement s && StatementRewriter.isListElement(s)) {
+			statement = s;
+		} else {
+			block = scopeBlock(declaration);
+			if (block == null) {
+				// a field or a variable without a block to put statements in
+				return;
+			}
+		}
+		insert(declaration, statement, block, rewriter, out);
+	}
+
+	/**
+	 * Returns the block in which a parameter or a {@code for} or resource variable
+	 * is in scope, or {@code null} if there is none.
+	 */
+	private static Block scopeBlock(VariableDeclaration declaration) {
+		ASTNode parent = declaration.getParent();
+		if (parent instanceof VariableDeclarationExpression) {
+			parent = parent.getParent();
+		}
+		ASTNode body = null;
+		if (parent instanceof MethodDeclaration method) {
+			body = method.getBody();
+		} else if (parent instanceof LambdaExpression lambda) {
+			body = lambda.getBody();
+		} else if (parent instanceof EnhancedForStatement loop) {
+			body = loop.getBody();
+		} else if (parent instanceof ForStatement loop) {
+			body = loop.getBody();
+		} else if (parent instanceof CatchClause catchClause) {
+			body = catchClause.getBody();
+		} else if (parent instanceof TryStatement tryStatement) {
+			body = tryStatement.getBody();
+		}
+		return body instanceof Block block ? block : null;
+	}
+
+	/**
+	 * Records the generated lines of each fragment after its declaring statement.
+	 */
+	private void insertAfterStatements(List<VariableDeclarationFragment> fragments,
+			Set<VariableDeclaration> processed, StatementRewriter rewriter, SnippetWriter out,
+			IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, fragments.size());
+		for (VariableDeclarationFragment fragment : fragments) {
+			subMonitor.split(1);
+			if (fragment.getParent() instanceof Statement statement && StatementRewriter.isListElement(statement)
+					&& processed.add(fragment)) {
+				insert(fragment, statement, null, rewriter, out);
+			}
+		}
+	}
+
+	/**
+	 * Records the code for a variable on {@code rewriter}: after its declaring
+	 * {@code statement} or, if that is {@code null}, first in {@code block}.
+	 * {@code out} is a scratch writer that may contain lines of a previous
+	 * variable. By default the lines written by
+	 * {@link #emit(String, ITypeBinding, TypeNames, LocalNames, SnippetWriter)} are inserted.
+	 */
+	void insert(VariableDeclaration declaration, Statement statement, Block block, StatementRewriter rewriter,
+			SnippetWriter out) {
+		out.reset();
+		emit(declaration, rewriter.getTypeNames(), rewriter.getLocalNames(declaration), out);
+		if (statement != null) {
+			rewriter.insertAfter(statement, out);
+		} else {
+			rewriter.insertFirst(block, out);
+		}
+	}
+
+	private void emit(VariableDeclaration declaration, TypeNames types, LocalNames locals, SnippetWriter out) {
+		Metrics.Invocation invocation = Metrics.current();
+		long start = invocation.begin();
+		int lines = out.getLineCount();
+		ITypeBinding type = HandlerHelper.resolveType(declaration);
+		if (type != null) {
+			emit(declaration.getName().getIdentifier(), type, types, locals, out);
+		}
+		invocation.count(Metrics.Counter.LINES_EMITTED, out.getLineCount() - lines);
+		invocation.end(Metrics.Phase.EMIT, start);
+	}
+
+	/**
+	 * Returns the method whose header, i.e. the part before its body, contains the
+	 * given offset, or {@code null} if there is none.
+	 */
+	private static MethodDeclaration findMethodByHeader(CompilationUnit cu, int offset) {
+		MethodDeclaration method = DeclarationIndex.findMethod(cu, offset);
+		if (method == null || method.getBody() == null || offset >= method.getBody().getStartPosition()) {
+			return null;
+		}
+		return method;
+	}
+}
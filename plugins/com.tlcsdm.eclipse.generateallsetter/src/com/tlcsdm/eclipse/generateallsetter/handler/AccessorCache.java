@@ -0,0 +1,175 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Caches the accessors declared by each type of a hierarchy, at most
+ * {@value #MAX_DECLARED} of them, keyed by the binding key, which includes the
+ * type arguments of a parameterized type, and evicts the least recently used
+ * one. Indexes of types sharing a generic superclass or interface with the same
+ * type arguments reuse its classification.
+ * <p>
+ * Only plain data is cached: kinds, property names and method signatures. The
+ * bindings of an {@link AccessorIndex} are resolved against the type binding it
+ * is built for, so the cache does not keep ASTs alive and does not hand bindings
+ * of one AST to code working on another, or to another thread. Entries are
+ * invalidated by {@link #LISTENER} whenever their type changes, and the whole
+ * cache is dropped when a classpath or archive changes.
+ * <p>
+ * Indexes themselves are not cached, as their bindings would keep the AST
+ * alive: every lookup walks the hierarchy of the given type again and resolves
+ * the cached classifications against its declared methods, which takes time
+ * linear in the number of methods but classifies none of them again.
+ */
+public final class AccessorCache {
+
+	/** The maximum number of cached declaring types. */
+	public static final int MAX_DECLARED = 512;
+
+	/**
+	 * Listener that invalidates cached entries on Java element deltas. Registered
+	 * by the activator for {@link ElementChangedEvent#POST_CHANGE} and
+	 * {@link ElementChangedEvent#POST_RECONCILE} events.
+	 */
+	public static final IElementChangedListener LISTENER = AccessorCache::elementChanged;
+
+	private static final int CLEAR_ALL_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private static final Map<String, AccessorIndex.Declared> DECLARED = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, AccessorIndex.Declared> eldest) {
+			return size() > MAX_DECLARED;
+		}
+	};
+
+	private AccessorCache() {
+	}
+
+	/**
+	 * Returns a new accessor index of the given type, built from the cached
+	 * classifications of the types of its hierarchy. The hierarchy is walked and
+	 * the methods are resolved on every call.
+	 */
+	public static AccessorIndex getIndex(ITypeBinding type) {
+		return AccessorIndex.build(type);
+	}
+
+	/**
+	 * Returns the setters of the given type, as collected by
+	 * {@link HandlerHelper#collectSetters(ITypeBinding)}, from a new index, see
+	 * {@link #getIndex(ITypeBinding)}.
+	 */
+	public static List<IMethodBinding> getSetters(ITypeBinding type) {
+		return getIndex(type).getSetters();
+	}
+
+	/**
+	 * Returns the getters of the given type, as collected by
+	 * {@link HandlerHelper#collectGetters(ITypeBinding)}, from a new index, see
+	 * {@link #getIndex(ITypeBinding)}.
+	 */
+	public static List<IMethodBinding> getGetters(ITypeBinding type) {
+		return getIndex(type).getGetters();
+	}
+
+	/**
+	 * Returns the accessors declared by the given type, from the cache when
+	 * possible.
+	 */
+	static AccessorIndex.Declared getDeclared(ITypeBinding type) {
+		String key = type.getKey();
+		if (key == null) {
+			return AccessorIndex.declare(type);
+		}
+		AccessorIndex.Declared declared;
+		synchronized (DECLARED) {
+			declared = DECLARED.get(key);
+		}
+		if (declared == null) {
+			declared = AccessorIndex.declare(type);
+			synchronized (DECLARED) {
+				DECLARED.put(key, declared);
+			}
+		}
+		return declared;
+	}
+
+	/**
+	 * Removes all cached entries.
+	 */
+	public static void clear() {
+		synchronized (DECLARED) {
+			DECLARED.clear();
+		}
+	}
+
+	private static void elementChanged(ElementChangedEvent event) {
+		Set<String> changed = new HashSet<>();
+		if (collectChangedTypes(event.getDelta(), changed)) {
+			clear();
+			DefaultValueProviders.clear();
+			SignatureIndex.clear();
+			return;
+		}
+		if (changed.isEmpty()) {
+			return;
+		}
+		DefaultValueProviders.clear();
+		synchronized (DECLARED) {
+			DECLARED.values().removeIf(declared -> changed.contains(declared.name));
+		}
+	}
+
+	/**
+	 * Collects the qualified names of the types affected by the given delta.
+	 *
+	 * @return {@code true} if the whole cache must be dropped
+	 */
+	private static boolean collectChangedTypes(IJavaElementDelta delta, Set<String> changed) {
+		if ((delta.getFlags() & CLEAR_ALL_FLAGS) != 0) {
+			return true;
+		}
+		IJavaElement element = delta.getElement();
+		if (element instanceof ICompilationUnit cu) {
+			if (delta.getKind() == IJavaElementDelta.REMOVED) {
+				return true;
+			}
+			try {
+				for (IType type : cu.getAllTypes()) {
+					changed.add(type.getFullyQualifiedName('.'));
+				}
+			} catch (JavaModelException e) {
+				return true;
+			}
+			return false;
+		}
+		if (delta.getKind() == IJavaElementDelta.REMOVED
+				&& element.getElementType() < IJavaElement.COMPILATION_UNIT) {
+			return true;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (collectChangedTypes(child, changed)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
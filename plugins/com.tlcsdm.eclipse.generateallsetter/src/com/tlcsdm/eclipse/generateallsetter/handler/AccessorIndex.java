@@ -0,0 +1,559 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+
+/**
+ * The accessor methods of a type, its superclasses and superinterfaces,
+ * classified in a single walk over the type hierarchy. Methods overridden in a
+ * subclass are only reported once, for the most specific declaration, and
+ * methods of superclasses precede interface default methods. Accessors can be looked up
+ * by property name in constant time.
+ * <p>
+ * The same walk records how instances of the type are constructed: the
+ * canonical constructor and component accessors of a record, the static
+ * {@code builder()} method of a type with a builder, as generated by Lombok's
+ * {@code @Builder}, and the {@code build()} method of a builder.
+ */
+public final class AccessorIndex {
+
+	/**
+	 * The kind of an accessor method.
+	 */
+	public enum Kind {
+		/** A no-arg {@code getX()} method with a non-void return type. */
+		GETTER,
+		/** A no-arg {@code isX()} method returning {@code boolean} or {@code Boolean}. */
+		BOOLEAN_GETTER,
+		/** A one-arg {@code setX(value)} method. */
+		SETTER,
+		/**
+		 * A one-arg {@code x(value)} or {@code withX(value)} method returning its
+		 * declaring type, as found on builders and fluent beans, which sets a
+		 * property the type can hold: a non-final instance field {@code x}, or, for
+		 * a type without instance fields, a getter {@code x()}, {@code getX()} or
+		 * {@code isX()}. Operations returning a new instance, such as
+		 * {@code String.concat}, {@code BigDecimal.add} or {@code LocalDate.withYear},
+		 * are not fluent setters.
+		 */
+		FLUENT_SETTER,
+		/** The {@code x()} accessor of the component {@code x} of a record. */
+		COMPONENT;
+
+		/**
+		 * Returns whether accessors of this kind read a property.
+		 */
+		public boolean isGetter() {
+			return this == GETTER || this == BOOLEAN_GETTER || this == COMPONENT;
+		}
+	}
+
+	/**
+	 * An accessor method together with its kind and property name.
+	 */
+	public record Accessor(Kind kind, String property, IMethodBinding method) {
+
+		/**
+		 * Returns the type of the property: the return type of a getter, the
+		 * parameter type of a setter.
+		 */
+		public ITypeBinding type() {
+			return kind.isGetter() ? method.getReturnType() : method.getParameterTypes()[0];
+		}
+	}
+
+	private final List<Accessor> accessors;
+	private final List<IMethodBinding> getters;
+	private final List<IMethodBinding> setters;
+	private final List<IMethodBinding> fluentSetters;
+	private final Map<String, Accessor> gettersByProperty;
+	private final Map<String, Accessor> settersByProperty;
+	private final Map<String, Accessor> fluentSettersByProperty;
+	private final List<Accessor> components;
+	private final IMethodBinding canonicalConstructor;
+	private final IMethodBinding builderMethod;
+	private final IMethodBinding buildMethod;
+
+	private AccessorIndex(List<Accessor> accessors, List<Accessor> components, IMethodBinding canonicalConstructor,
+			IMethodBinding builderMethod, IMethodBinding buildMethod) {
+		this.accessors = Collections.unmodifiableList(accessors);
+		List<IMethodBinding> g = new ArrayList<>();
+		List<IMethodBinding> s = new ArrayList<>();
+		List<IMethodBinding> f = new ArrayList<>();
+		Map<String, Accessor> gp = new HashMap<>();
+		Map<String, Accessor> sp = new HashMap<>();
+		Map<String, Accessor> fp = new HashMap<>();
+		for (Accessor a : accessors) {
+			switch (a.kind()) {
+			case GETTER, BOOLEAN_GETTER, COMPONENT -> {
+				g.add(a.method());
+				gp.putIfAbsent(a.property(), a);
+			}
+			case SETTER -> {
+				s.add(a.method());
+				sp.putIfAbsent(a.property(), a);
+			}
+			case FLUENT_SETTER -> {
+				f.add(a.method());
+				fp.putIfAbsent(a.property(), a);
+			}
+			}
+		}
+		this.getters = Collections.unmodifiableList(g);
+		this.setters = Collections.unmodifiableList(s);
+		this.fluentSetters = Collections.unmodifiableList(f);
+		this.gettersByProperty = gp;
+		this.settersByProperty = sp;
+		this.fluentSettersByProperty = fp;
+		this.components = Collections.unmodifiableList(components);
+		this.canonicalConstructor = canonicalConstructor;
+		this.builderMethod = builderMethod;
+		this.buildMethod = buildMethod;
+	}
+
+	/**
+	 * The accessors declared by a single type of a hierarchy, as plain data: their
+	 * kinds, property names and method signatures, but no bindings. Bindings
+	 * belong to the AST they were resolved in, so a cached {@code Declared} is
+	 * shared across ASTs and threads through
+	 * {@link AccessorCache#getDeclared(ITypeBinding)} and its methods are looked
+	 * up again among the declared methods of the type binding at hand by
+	 * {@link AccessorIndex#build(ITypeBinding)}. For a parameterized type the
+	 * signatures are those of the parameterization, so the declared accessors of
+	 * each distinct parameterization are classified once.
+	 */
+	static final class Declared {
+		final String name;
+		final DeclaredAccessor[] accessors;
+		final List<String> componentNames;
+		final MethodRef canonicalConstructor;
+		final MethodRef builderMethod;
+		final MethodRef buildMethod;
+
+		private Declared(String name, DeclaredAccessor[] accessors, List<String> componentNames,
+				MethodRef canonicalConstructor, MethodRef builderMethod, MethodRef buildMethod) {
+			this.name = name;
+			this.accessors = accessors;
+			this.componentNames = componentNames;
+			this.canonicalConstructor = canonicalConstructor;
+			this.builderMethod = builderMethod;
+			this.buildMethod = buildMethod;
+		}
+	}
+
+	/**
+	 * An accessor of a {@link Declared} type, without its method binding.
+	 */
+	record DeclaredAccessor(Kind kind, String property, MethodRef method) {
+	}
+
+	/**
+	 * A method identified by its name and erased parameter types, which do not
+	 * depend on the AST, together with its position among the declared methods
+	 * of its type as a hint where to find it again.
+	 */
+	static final class MethodRef {
+		final String name;
+		final String[] parameterTypes;
+		final String signature;
+		private final int position;
+
+		MethodRef(IMethodBinding method, ITypeBinding[] params, int position) {
+			this.name = method.getName();
+			this.parameterTypes = new String[params.length];
+			StringBuilder sb = new StringBuilder(name).append('(');
+			for (int i = 0; i < params.length; i++) {
+				parameterTypes[i] = params[i].getErasure().getQualifiedName();
+				sb.append(parameterTypes[i]).append(',');
+			}
+			this.signature = sb.append(')').toString();
+			this.position = position;
+		}
+
+		/**
+		 * Returns the binding of this method among the declared methods of a type,
+		 * or {@code null} if the type no longer declares it.
+		 */
+		IMethodBinding resolve(IMethodBinding[] methods) {
+			if (position < methods.length && matches(methods[position])) {
+				return methods[position];
+			}
+			for (IMethodBinding m : methods) {
+				if (matches(m)) {
+					return m;
+				}
+			}
+			return null;
+		}
+
+		private boolean matches(IMethodBinding m) {
+			if (m == null || !name.equals(m.getName())) {
+				return false;
+			}
+			ITypeBinding[] params = m.getParameterTypes();
+			if (params.length != parameterTypes.length) {
+				return false;
+			}
+			for (int i = 0; i < params.length; i++) {
+				if (!parameterTypes[i].equals(params[i].getErasure().getQualifiedName())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Builds the index for the given type by walking it, its superclasses up to,
+	 * but excluding, {@code java.lang.Object}, and all their superinterfaces, so
+	 * that default methods are found as well. The classification of each type is
+	 * taken from the cache and resolved against the bindings of the given type,
+	 * so all methods of the index belong to its AST. The index itself is not
+	 * cached; each call walks the hierarchy again.
+	 */
+	public static AccessorIndex build(ITypeBinding type) {
+		return build(type, AccessorCache::getDeclared);
+	}
+
+	/**
+	 * Builds the index for the given type, classifying the methods of each type of
+	 * its hierarchy with the given function.
+	 */
+	static AccessorIndex build(ITypeBinding type, Function<ITypeBinding, Declared> declarations) {
+		Metrics.Invocation invocation = Metrics.current();
+		long start = invocation.begin();
+		List<Accessor> accessors = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+		IMethodBinding builderMethod = null;
+		IMethodBinding buildMethod = null;
+		IMethodBinding canonicalConstructor = null;
+		Declared root = null;
+		int rootAccessors = 0;
+		for (ITypeBinding t : hierarchy(type)) {
+			Declared declared = declarations.apply(t);
+			IMethodBinding[] methods = t.getDeclaredMethods();
+			for (DeclaredAccessor a : declared.accessors) {
+				if (!seen.contains(a.method().signature)) {
+					IMethodBinding m = a.method().resolve(methods);
+					if (m != null) {
+						seen.add(a.method().signature);
+						accessors.add(new Accessor(a.kind(), a.property(), m));
+					}
+				}
+			}
+			if (root == null) {
+				root = declared;
+				rootAccessors = accessors.size();
+				canonicalConstructor = resolve(declared.canonicalConstructor, methods);
+			}
+			if (builderMethod == null) {
+				builderMethod = resolve(declared.builderMethod, methods);
+			}
+			if (buildMethod == null) {
+				buildMethod = resolve(declared.buildMethod, methods);
+			}
+		}
+		List<Accessor> components = new ArrayList<>();
+		if (canonicalConstructor != null) {
+			Map<String, Accessor> componentAccessors = new HashMap<>();
+			for (Accessor a : accessors.subList(0, rootAccessors)) {
+				if (a.kind() == Kind.COMPONENT) {
+					componentAccessors.put(a.property(), a);
+				}
+			}
+			for (String name : root.componentNames) {
+				Accessor component = componentAccessors.get(name);
+				if (component == null) {
+					// an accessor is missing, the record cannot be constructed component-wise
+					components.clear();
+					canonicalConstructor = null;
+					break;
+				}
+				components.add(component);
+			}
+		}
+		invocation.end(Metrics.Phase.HIERARCHY, start);
+		return new AccessorIndex(accessors, components, canonicalConstructor, builderMethod, buildMethod);
+	}
+
+	private static IMethodBinding resolve(MethodRef ref, IMethodBinding[] methods) {
+		return ref != null ? ref.resolve(methods) : null;
+	}
+
+	/**
+	 * Returns the given type, its superclasses up to, but excluding,
+	 * {@code java.lang.Object}, and then all their superinterfaces breadth-first.
+	 * Each type is visited once, keyed by its binding key, so an interface
+	 * inherited along several paths is only returned once; types that are
+	 * parameterized differently are distinct.
+	 */
+	static List<ITypeBinding> hierarchy(ITypeBinding type) {
+		List<ITypeBinding> types = new ArrayList<>();
+		Set<String> visited = new HashSet<>();
+		for (ITypeBinding c = type; c != null && !"java.lang.Object".equals(c.getQualifiedName()); c = c
+				.getSuperclass()) {
+			if (visited.add(keyOf(c))) {
+				types.add(c);
+			}
+		}
+		// types grows while it is iterated, which makes this a breadth-first walk
+		for (int i = 0; i < types.size(); i++) {
+			for (ITypeBinding superInterface : types.get(i).getInterfaces()) {
+				if (visited.add(keyOf(superInterface))) {
+					types.add(superInterface);
+				}
+			}
+		}
+		return types;
+	}
+
+	private static String keyOf(ITypeBinding type) {
+		String key = type.getKey();
+		return key != null ? key : type.getQualifiedName();
+	}
+
+	/**
+	 * Classifies the methods declared by a single type.
+	 */
+	static Declared declare(ITypeBinding type) {
+		IMethodBinding[] methods = type.getDeclaredMethods();
+		Metrics.current().count(Metrics.Counter.METHODS_SCANNED, methods.length);
+		String declaringKey = type.getErasure().getKey();
+		List<String> componentNames = type.isRecord() ? componentNames(type) : List.of();
+		SettableProperties settable = SettableProperties.of(type, methods);
+		List<DeclaredAccessor> accessors = new ArrayList<>();
+		MethodRef canonicalConstructor = null;
+		MethodRef builderMethod = null;
+		MethodRef buildMethod = null;
+		for (int i = 0; i < methods.length; i++) {
+			IMethodBinding m = methods[i];
+			if (m == null) {
+				continue;
+			}
+			ITypeBinding[] params = m.getParameterTypes();
+			if (m.isConstructor()) {
+				if (m.isCanonicalConstructor()) {
+					canonicalConstructor = new MethodRef(m, params, i);
+				}
+				continue;
+			}
+			if (Modifier.isStatic(m.getModifiers())) {
+				if (builderMethod == null && params.length == 0 && "builder".equals(m.getName())
+						&& isReference(m.getReturnType())) {
+					builderMethod = new MethodRef(m, params, i);
+				}
+				continue;
+			}
+			if (buildMethod == null && params.length == 0 && "build".equals(m.getName())
+					&& isReference(m.getReturnType())) {
+				buildMethod = new MethodRef(m, params, i);
+			}
+			Accessor accessor = classify(m, params, declaringKey, componentNames, settable);
+			if (accessor != null) {
+				accessors.add(new DeclaredAccessor(accessor.kind(), accessor.property(), new MethodRef(m, params, i)));
+			}
+		}
+		return new Declared(type.getErasure().getQualifiedName(), accessors.toArray(new DeclaredAccessor[0]),
+				componentNames, canonicalConstructor, builderMethod, buildMethod);
+	}
+
+	/**
+	 * Returns the names of the components of a record, in declaration order. A
+	 * record cannot declare instance fields, so its instance fields are the
+	 * component fields. The declared fields are not reported in declaration
+	 * order, but their variable ids are.
+	 */
+	private static List<String> componentNames(ITypeBinding type) {
+		List<IVariableBinding> fields = new ArrayList<>();
+		for (IVariableBinding field : type.getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				fields.add(field);
+			}
+		}
+		fields.sort((a, b) -> Integer.compare(a.getVariableId(), b.getVariableId()));
+		List<String> names = new ArrayList<>(fields.size());
+		for (IVariableBinding field : fields) {
+			names.add(field.getName());
+		}
+		return names;
+	}
+
+	private static boolean isReference(ITypeBinding type) {
+		return type != null && !type.isPrimitive() && !type.isArray();
+	}
+
+	private static Accessor classify(IMethodBinding m, ITypeBinding[] params, String declaringKey,
+			List<String> componentNames, SettableProperties settable) {
+		String name = m.getName();
+		ITypeBinding ret = m.getReturnType();
+		if (params.length == 0) {
+			if (ret == null || "void".equals(ret.getName())) {
+				return null;
+			}
+			if (!componentNames.isEmpty() && componentNames.contains(name)) {
+				return new Accessor(Kind.COMPONENT, name, m);
+			}
+			if (name.startsWith("get") && name.length() > 3) {
+				return new Accessor(Kind.GETTER, propertyName(name.substring(3)), m);
+			}
+			if (name.startsWith("is") && name.length() > 2
+					&& ("boolean".equals(ret.getName()) || "java.lang.Boolean".equals(ret.getQualifiedName()))) {
+				return new Accessor(Kind.BOOLEAN_GETTER, propertyName(name.substring(2)), m);
+			}
+			return null;
+		}
+		if (params.length != 1) {
+			return null;
+		}
+		if (name.startsWith("set") && name.length() > 3) {
+			return new Accessor(Kind.SETTER, propertyName(name.substring(3)), m);
+		}
+		if (ret != null && declaringKey.equals(ret.getErasure().getKey())
+				&& !declaringKey.equals(params[0].getErasure().getKey())) {
+			String property = name.startsWith("with") && name.length() > 4 ? propertyName(name.substring(4)) : name;
+			return settable.contains(property) ? new Accessor(Kind.FLUENT_SETTER, property, m) : null;
+		}
+		return null;
+	}
+
+	/**
+	 * The properties a fluent setter of a type can set: its non-final instance
+	 * fields, or, if it has no instance fields at all, the properties read by its
+	 * no-arg methods {@code x()}, {@code getX()} and {@code isX()}.
+	 */
+	record SettableProperties(boolean hasFields, Set<String> fields, Set<String> readers) {
+
+		static SettableProperties of(ITypeBinding type, IMethodBinding[] methods) {
+			boolean hasFields = false;
+			Set<String> fields = new HashSet<>();
+			for (IVariableBinding field : type.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers)) {
+					hasFields = true;
+					if (!Modifier.isFinal(modifiers)) {
+						fields.add(field.getName());
+					}
+				}
+			}
+			Set<String> readers = new HashSet<>();
+			if (!hasFields) {
+				for (IMethodBinding m : methods) {
+					if (m != null && m.getParameterTypes().length == 0 && !Modifier.isStatic(m.getModifiers())) {
+						readers.add(m.getName());
+					}
+				}
+			}
+			return new SettableProperties(hasFields, fields, readers);
+		}
+
+		boolean contains(String property) {
+			if (hasFields) {
+				return fields.contains(property);
+			}
+			String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+			return readers.contains(property) || readers.contains("get" + suffix) || readers.contains("is" + suffix);
+		}
+	}
+
+	/**
+	 * Converts the part of an accessor name after its prefix to a property name by
+	 * lower-casing the first character.
+	 */
+	public static String propertyName(String suffix) {
+		return suffix.substring(0, 1).toLowerCase() + suffix.substring(1);
+	}
+
+	/**
+	 * Returns all accessors, subclass declarations first.
+	 */
+	public List<Accessor> getAccessors() {
+		return accessors;
+	}
+
+	/**
+	 * Returns the getter, boolean getter and record component accessor methods,
+	 * subclass declarations first.
+	 */
+	public List<IMethodBinding> getGetters() {
+		return getters;
+	}
+
+	/**
+	 * Returns the setter methods, subclass declarations first.
+	 */
+	public List<IMethodBinding> getSetters() {
+		return setters;
+	}
+
+	/**
+	 * Returns the fluent setter methods, subclass declarations first.
+	 */
+	public List<IMethodBinding> getFluentSetters() {
+		return fluentSetters;
+	}
+
+	/**
+	 * Returns the getter for the given property, or {@code null} if there is none.
+	 */
+	public Accessor getGetter(String property) {
+		return gettersByProperty.get(property);
+	}
+
+	/**
+	 * Returns the setter for the given property, or {@code null} if there is none.
+	 */
+	public Accessor getSetter(String property) {
+		return settersByProperty.get(property);
+	}
+
+	/**
+	 * Returns the fluent setter for the given property, or {@code null} if there is
+	 * none.
+	 */
+	public Accessor getFluentSetter(String property) {
+		return fluentSettersByProperty.get(property);
+	}
+
+	/**
+	 * Returns the accessors of the components of a record in declaration order, or
+	 * an empty list if the type is not a record.
+	 */
+	public List<Accessor> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Returns the canonical constructor of a record, or {@code null} if the type
+	 * is not a record.
+	 */
+	public IMethodBinding getCanonicalConstructor() {
+		return canonicalConstructor;
+	}
+
+	/**
+	 * Returns the static no-arg {@code builder()} method of the type or its
+	 * superclasses, or {@code null} if there is none.
+	 */
+	public IMethodBinding getBuilderMethod() {
+		return builderMethod;
+	}
+
+	/**
+	 * Returns the no-arg {@code build()} method of a builder type, or
+	 * {@code null} if there is none.
+	 */
+	public IMethodBinding getBuildMethod() {
+		return buildMethod;
+	}
+}
@@ -0,0 +1,176 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
+
+/**
+ * Acquires the AST for a compilation unit. The shared AST maintained by the
+ * Java editor's reconciler is reused when it is available and up to date;
+ * otherwise the compilation unit is parsed, either fully or focused on the
+ * member around an offset (see
+ * {@link HandlerHelper#parseCompilationUnit(ICompilationUnit, int, IProgressMonitor)}).
+ */
+public final class AstProvider {
+
+	private static final AtomicLong SHARED_HITS = new AtomicLong();
+	private static final AtomicLong PARSES = new AtomicLong();
+
+	private AstProvider() {
+	}
+
+	/**
+	 * The way an AST was obtained.
+	 */
+	public enum Source {
+		/** Reused from the JDT shared AST provider. */
+		SHARED,
+		/** Parsed because no usable shared AST was available. */
+		PARSED,
+		/**
+		 * Parsed around a focal position because no usable shared AST was available.
+		 */
+		FOCUSED
+	}
+
+	/**
+	 * An acquired AST together with how it was obtained and how long that took.
+	 */
+	public record AstResult(CompilationUnit ast, Source source, long elapsedNanos) {
+	}
+
+	/**
+	 * Where an AST comes from: the shared AST of a compilation unit, if there is a
+	 * usable one, or else a parse of it. Outside the IDE the parse is supplied by
+	 * the caller.
+	 */
+	interface AstSource {
+
+		/**
+		 * Returns the shared AST if it is available, has bindings and matches the
+		 * working copy, otherwise {@code null}.
+		 */
+		CompilationUnit getShared(IProgressMonitor monitor);
+
+		/**
+		 * Parses the compilation unit, focused on {@code focalPosition} unless it is
+		 * negative.
+		 */
+		CompilationUnit parse(int focalPosition, IProgressMonitor monitor);
+	}
+
+	/**
+	 * Returns the source of the ASTs of the given compilation unit.
+	 */
+	static AstSource sourceOf(ICompilationUnit icu) {
+		return new AstSource() {
+			@Override
+			public CompilationUnit getShared(IProgressMonitor monitor) {
+				return getSharedAst(icu, monitor);
+			}
+
+			@Override
+			public CompilationUnit parse(int focalPosition, IProgressMonitor monitor) {
+				return focalPosition < 0 ? HandlerHelper.parseCompilationUnit(icu, monitor)
+						: HandlerHelper.parseCompilationUnit(icu, focalPosition, monitor);
+			}
+		};
+	}
+
+	/**
+	 * Returns the AST for the given compilation unit, preferring the shared AST
+	 * and falling back to a full parse when it is missing or stale. Progress is
+	 * reported to the given monitor, which may be {@code null}.
+	 */
+	public static AstResult acquire(ICompilationUnit icu, IProgressMonitor monitor) {
+		return acquire(sourceOf(icu), -1, monitor);
+	}
+
+	/**
+	 * Returns the AST for the given compilation unit, preferring the shared AST
+	 * and falling back to a parse focused on the member enclosing
+	 * {@code offset}. Only that member's body is guaranteed to be present in a
+	 * focused AST. Progress is reported to the given monitor, which may be
+	 * {@code null}.
+	 */
+	public static AstResult acquire(ICompilationUnit icu, int offset, IProgressMonitor monitor) {
+		return acquire(sourceOf(icu), offset, monitor);
+	}
+
+	/**
+	 * Returns the AST from the given source, preferring the shared AST and
+	 * falling back to a parse, focused on {@code offset} unless it is negative.
+	 */
+	static AstResult acquire(AstSource source, int offset, IProgressMonitor monitor) {
+		Metrics.Invocation invocation = Metrics.current();
+		long start = invocation.begin();
+		try {
+			CompilationUnit shared = source.getShared(monitor);
+			if (shared != null) {
+				SHARED_HITS.incrementAndGet();
+				return new AstResult(shared, Source.SHARED, System.nanoTime() - start);
+			}
+			CompilationUnit parsed = source.parse(offset, monitor);
+			PARSES.incrementAndGet();
+			return new AstResult(parsed, offset < 0 ? Source.PARSED : Source.FOCUSED, System.nanoTime() - start);
+		} finally {
+			invocation.end(Metrics.Phase.PARSE, start);
+		}
+	}
+
+	/**
+	 * Returns the shared AST of the given compilation unit if it is available
+	 * right away, without waiting for or triggering a reconcile, or {@code null}.
+	 * The AST may predate the latest changes of the working copy, so callers must
+	 * check that the nodes they use still match the document.
+	 */
+	public static CompilationUnit peekSharedAst(ICompilationUnit icu) {
+		try {
+			CompilationUnit ast = SharedASTProviderCore.getAST(icu, SharedASTProviderCore.WAIT_NO, null);
+			if (ast == null || !ast.getAST().hasResolvedBindings() || !icu.equals(ast.getJavaElement())) {
+				return null;
+			}
+			return ast;
+		} catch (Exception e) {
+			HandlerHelper.logWarning("Failed to obtain shared AST", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the number of acquisitions served from the shared AST.
+	 */
+	public static long getSharedHits() {
+		return SHARED_HITS.get();
+	}
+
+	/**
+	 * Returns the number of acquisitions that fell back to a parse.
+	 */
+	public static long getParses() {
+		return PARSES.get();
+	}
+
+	/**
+	 * Returns the shared AST of the given compilation unit, or {@code null} if it
+	 * is not available, has no bindings or no longer matches the working copy.
+	 */
+	private static CompilationUnit getSharedAst(ICompilationUnit icu, IProgressMonitor monitor) {
+		try {
+			CompilationUnit ast = SharedASTProviderCore.getAST(icu, SharedASTProviderCore.WAIT_ACTIVE_ONLY, monitor);
+			if (ast == null || !ast.getAST().hasResolvedBindings()) {
+				return null;
+			}
+			if (!icu.equals(ast.getJavaElement()) || !icu.isConsistent()) {
+				return null;
+			}
+			return ast;
+		} catch (Exception e) {
+			HandlerHelper.logWarning("Failed to obtain shared AST", e);
+			return null;
+		}
+	}
+}
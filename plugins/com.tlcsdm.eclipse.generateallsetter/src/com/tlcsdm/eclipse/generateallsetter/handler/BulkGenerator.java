@@ -0,0 +1,319 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.preferences.IScopeContext;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.formatter.CodeFormatter;
+import org.eclipse.jdt.ui.CodeStyleConfiguration;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Generates fixture classes for many types at once without opening editors.
+ * For a type {@code T} a class {@code TFixtures} is created next to it, with a
+ * {@code create()} method that calls every setter with a default value and a
+ * {@code copy(T)} method that copies every property having both a getter and a
+ * setter.
+ * <p>
+ * The type bindings of each project are resolved with a single
+ * {@link ASTParser#createASTs} call. The accessor model is extracted while the
+ * bindings are valid, bypassing the {@link AccessorCache}, which would
+ * otherwise be flooded with types that are not used in an editor. The sources
+ * are then rendered and formatted in parallel, naming the referenced types
+ * through an {@link org.eclipse.jdt.core.dom.rewrite.ImportRewrite} of each new
+ * compilation unit, and all compilation units are finally created, with their
+ * imports, in one workspace operation.
+ */
+public final class BulkGenerator {
+
+	/** The suffix appended to the type name to form the fixture class name. */
+	public static final String SUFFIX = "Fixtures";
+
+	private BulkGenerator() {
+	}
+
+	/**
+	 * The outcome of generating the fixture class for one type.
+	 *
+	 * @param generated    the created compilation unit, or {@code null} if the type
+	 *                     was skipped
+	 * @param message      a short description of the outcome
+	 * @param elapsedNanos the time spent on this type, excluding the shared
+	 *                     binding resolution
+	 */
+	public record TypeResult(IType type, ICompilationUnit generated, String message, long elapsedNanos) {
+	}
+
+	/**
+	 * The model of a fixture class. {@code setters} are called with
+	 * {@code values} in {@code create()}.
+	 */
+	private record TypeModel(IType type, String qualifiedName, String className, TypeNames types,
+			List<String> setters, List<DefaultValue> values, List<String> copyLines) {
+	}
+
+	/**
+	 * Adds the top-level and member types of the given element, which may be a
+	 * package fragment, a compilation unit or a type, to {@code types}.
+	 */
+	public static void collectTypes(IJavaElement element, Collection<IType> types) throws JavaModelException {
+		if (element instanceof IPackageFragment pkg) {
+			for (ICompilationUnit cu : pkg.getCompilationUnits()) {
+				collectTypes(cu, types);
+			}
+		} else if (element instanceof ICompilationUnit cu) {
+			for (IType type : cu.getAllTypes()) {
+				if (!type.isLocal() && !type.isAnonymous()) {
+					types.add(type);
+				}
+			}
+		} else if (element instanceof IType type) {
+			types.add(type);
+		}
+	}
+
+	/**
+	 * Generates the fixture classes for the given types.
+	 *
+	 * @return one result per type, in iteration order of {@code types}
+	 */
+	public static List<TypeResult> generate(Collection<IType> types, IProgressMonitor monitor) throws CoreException {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, "Generating fixtures", 3 * types.size());
+		Map<IType, TypeResult> results = new LinkedHashMap<>();
+		Map<IType, Long> times = new ConcurrentHashMap<>();
+		List<TypeModel> models = new ArrayList<>();
+
+		Map<IJavaProject, List<IType>> byProject = new LinkedHashMap<>();
+		for (IType type : new LinkedHashSet<>(types)) {
+			results.put(type, null);
+			if (type.getPackageFragment().isReadOnly()) {
+				results.put(type, new TypeResult(type, null, "Skipped: read-only package", 0));
+				continue;
+			}
+			byProject.computeIfAbsent(type.getJavaProject(), p -> new ArrayList<>()).add(type);
+		}
+
+		for (Map.Entry<IJavaProject, List<IType>> entry : byProject.entrySet()) {
+			List<IType> projectTypes = entry.getValue();
+			resolve(entry.getKey(), projectTypes, models, results, times, subMonitor.split(projectTypes.size()));
+		}
+
+		Map<IType, String> sources = new ConcurrentHashMap<>();
+		SubMonitor renderMonitor = subMonitor.split(models.size());
+		models.parallelStream().forEach(model -> {
+			if (renderMonitor.isCanceled()) {
+				return;
+			}
+			long start = System.nanoTime();
+			sources.put(model.type(), format(model.type().getJavaProject(), render(model)));
+			times.merge(model.type(), System.nanoTime() - start, Long::sum);
+		});
+		if (renderMonitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		SubMonitor writeMonitor = subMonitor.split(models.size());
+		JavaCore.run(pm -> {
+			SubMonitor sm = SubMonitor.convert(pm, models.size());
+			for (TypeModel model : models) {
+				sm.split(1);
+				long start = System.nanoTime();
+				IPackageFragment pkg = model.type().getPackageFragment();
+				String fileName = model.className() + ".java";
+				ICompilationUnit existing = pkg.getCompilationUnit(fileName);
+				TypeResult result;
+				if (existing.exists()) {
+					result = new TypeResult(model.type(), null, "Skipped: " + fileName + " already exists", 0);
+				} else {
+					ICompilationUnit created = pkg.createCompilationUnit(fileName, sources.get(model.type()), false, null);
+					// the imports can only be rewritten once the compilation unit exists
+					TextEdit imports = model.types().createImportEdit();
+					if (imports != null) {
+						created.applyTextEdit(imports, null);
+						created.save(null, false);
+					}
+					result = new TypeResult(model.type(), created, "Generated " + fileName, 0);
+				}
+				long elapsed = times.merge(model.type(), System.nanoTime() - start, Long::sum);
+				results.put(model.type(),
+						new TypeResult(result.type(), result.generated(), result.message(), elapsed));
+			}
+		}, writeMonitor);
+
+		return new ArrayList<>(results.values());
+	}
+
+	/**
+	 * Resolves the bindings of all types of one project in a single batch and
+	 * extracts their accessor models.
+	 */
+	private static void resolve(IJavaProject project, List<IType> types, List<TypeModel> models,
+			Map<IType, TypeResult> results, Map<IType, Long> times, IProgressMonitor monitor) {
+		Map<String, IType> byKey = new HashMap<>();
+		for (IType type : types) {
+			byKey.put(type.getKey(), type);
+		}
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setProject(project);
+		parser.setResolveBindings(true);
+		Set<IType> accepted = new HashSet<>();
+		SubMonitor subMonitor = SubMonitor.convert(monitor, types.size());
+		parser.createASTs(new ICompilationUnit[0], byKey.keySet().toArray(String[]::new), new ASTRequestor() {
+			@Override
+			public void acceptBinding(String bindingKey, IBinding binding) {
+				subMonitor.split(1);
+				IType type = byKey.get(bindingKey);
+				accepted.add(type);
+				long start = System.nanoTime();
+				String problem = binding instanceof ITypeBinding typeBinding ? checkInstantiable(typeBinding)
+						: "Skipped: binding could not be resolved";
+				if (problem != null) {
+					results.put(type, new TypeResult(type, null, problem, 0));
+				} else {
+					try {
+						models.add(extract(type, (ITypeBinding) binding));
+					} catch (JavaModelException e) {
+						results.put(type, new TypeResult(type, null, "Skipped: " + e.getMessage(), 0));
+					}
+				}
+				times.merge(type, System.nanoTime() - start, Long::sum);
+			}
+		}, subMonitor);
+		for (IType type : types) {
+			if (!accepted.contains(type)) {
+				results.put(type, new TypeResult(type, null, "Skipped: binding could not be resolved", 0));
+			}
+		}
+	}
+
+	/**
+	 * Returns why no fixture can be generated for the type, or {@code null} if it
+	 * is a concrete class with an accessible no-arg constructor.
+	 */
+	private static String checkInstantiable(ITypeBinding type) {
+		if (!type.isClass() || type.isLocal() || type.isAnonymous() || Modifier.isAbstract(type.getModifiers())) {
+			return "Skipped: not a concrete class";
+		}
+		if (type.isMember() && !Modifier.isStatic(type.getModifiers())) {
+			return "Skipped: inner class";
+		}
+		if (!HandlerHelper.hasAccessibleNoArgConstructor(type)) {
+			return "Skipped: no accessible no-arg constructor";
+		}
+		return null;
+	}
+
+	/**
+	 * Extracts the model of the fixture class of a type, keeping the types of the
+	 * default values as qualified names, so that they can be imported once the
+	 * bindings are gone.
+	 */
+	private static TypeModel extract(IType type, ITypeBinding binding) throws JavaModelException {
+		String className = type.getTypeQualifiedName('.').replace(".", "") + SUFFIX;
+		ICompilationUnit fixture = type.getPackageFragment().getCompilationUnit(className + ".java");
+		TypeNames types = TypeNames.create(CodeStyleConfiguration.createImportRewrite(fixture, false));
+		// declarations are resolved directly, the shared cache only holds the types used in editors
+		AccessorIndex index = AccessorIndex.build(binding, AccessorIndex::declare);
+
+		List<String> setters = new ArrayList<>();
+		List<DefaultValue> values = new ArrayList<>();
+		List<String> copyLines = new ArrayList<>();
+		Set<String> copied = new LinkedHashSet<>();
+		for (AccessorIndex.Accessor setter : index.getAccessors()) {
+			if (setter.kind() != AccessorIndex.Kind.SETTER) {
+				continue;
+			}
+			IMethodBinding m = setter.method();
+			setters.add(m.getName());
+			values.add(DefaultValueProviders.getDefaultValue(m.getParameterTypes()[0]));
+			AccessorIndex.Accessor getter = index.getGetter(setter.property());
+			if (getter != null && copied.add(setter.property())) {
+				copyLines.add("target." + m.getName() + "(source." + getter.method().getName() + "());");
+			}
+		}
+		return new TypeModel(type, type.getFullyQualifiedName('.'), className, types, setters, values,
+				copyLines);
+	}
+
+	private static String render(TypeModel model) {
+		String varName = HandlerHelper.decapitalize(model.type().getElementName());
+		TypeNames types = model.types();
+		String typeName = types.name(model.qualifiedName());
+		StringBuilder sb = new StringBuilder();
+		String pkg = model.type().getPackageFragment().getElementName();
+		if (!pkg.isEmpty()) {
+			sb.append("package ").append(pkg).append(";\n\n");
+		}
+		sb.append("public final class ").append(model.className()).append(" {\n\n");
+		sb.append("private ").append(model.className()).append("() {\n}\n\n");
+		sb.append("public static ").append(typeName).append(" create() {\n");
+		sb.append(typeName).append(' ').append(varName).append(" = new ").append(typeName).append("();\n");
+		for (int i = 0; i < model.setters().size(); i++) {
+			sb.append(varName).append('.').append(model.setters().get(i)).append('(')
+					.append(model.values().get(i).render(types)).append(");\n");
+		}
+		sb.append("return ").append(varName).append(";\n}\n\n");
+		sb.append("public static ").append(typeName).append(" copy(").append(typeName).append(" source) {\n");
+		sb.append(typeName).append(" target = new ").append(typeName).append("();\n");
+		for (String line : model.copyLines()) {
+			sb.append(line).append('\n');
+		}
+		sb.append("return target;\n}\n}\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Formats the source with the project's formatter settings and line
+	 * delimiter.
+	 */
+	private static String format(IJavaProject project, String source) {
+		String delimiter = Platform.getPreferencesService().getString(Platform.PI_RUNTIME,
+				Platform.PREF_LINE_SEPARATOR, System.lineSeparator(),
+				new IScopeContext[] { new ProjectScope(project.getProject()), InstanceScope.INSTANCE });
+		CodeFormatter formatter = ToolFactory.createCodeFormatter(project.getOptions(true));
+		TextEdit edit = formatter.format(CodeFormatter.K_COMPILATION_UNIT, source, 0, source.length(), 0, delimiter);
+		if (edit == null) {
+			return source.replace("\n", delimiter);
+		}
+		Document doc = new Document(source);
+		try {
+			edit.apply(doc);
+		} catch (BadLocationException e) {
+			HandlerHelper.logWarning("Failed to format generated fixture class", e);
+			return source.replace("\n", delimiter);
+		}
+		return doc.get();
+	}
+}
@@ -0,0 +1,103 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * How a new instance of a type that cannot be populated through setters is
+ * created: a call of the canonical constructor of a record, or a chain of the
+ * fluent setters of the builder returned by the type's static
+ * {@code builder()} method. Both forms take the values of their
+ * {@linkplain #getProperties() properties} in one expression.
+ */
+public final class Construction {
+
+	private final ITypeBinding type;
+	private final List<AccessorIndex.Accessor> properties;
+	private final IMethodBinding buildMethod;
+
+	private Construction(ITypeBinding type, List<AccessorIndex.Accessor> properties, IMethodBinding buildMethod) {
+		this.type = type;
+		this.properties = properties;
+		this.buildMethod = buildMethod;
+	}
+
+	/**
+	 * Returns the construction of the given type, or {@code null} if it is a bean
+	 * with an accessible no-arg constructor and setters, or neither a record nor a
+	 * type with a builder.
+	 */
+	public static Construction find(ITypeBinding type) {
+		AccessorIndex index = AccessorCache.getIndex(type);
+		if (!index.getSetters().isEmpty() && HandlerHelper.hasAccessibleNoArgConstructor(type)) {
+			return null;
+		}
+		if (index.getCanonicalConstructor() != null) {
+			return new Construction(type, index.getComponents(), null);
+		}
+		IMethodBinding builderMethod = index.getBuilderMethod();
+		if (builderMethod == null) {
+			return null;
+		}
+		AccessorIndex builder = AccessorCache.getIndex(builderMethod.getReturnType());
+		IMethodBinding buildMethod = builder.getBuildMethod();
+		if (buildMethod == null || !buildMethod.getReturnType().getErasure().isEqualTo(type.getErasure())) {
+			return null;
+		}
+		List<AccessorIndex.Accessor> setters = new ArrayList<>();
+		for (AccessorIndex.Accessor a : builder.getAccessors()) {
+			if (a.kind() == AccessorIndex.Kind.FLUENT_SETTER) {
+				setters.add(a);
+			}
+		}
+		return new Construction(type, Collections.unmodifiableList(setters), buildMethod);
+	}
+
+	/**
+	 * Returns the properties that receive a value: the component accessors of a
+	 * record or the fluent setters of a builder.
+	 */
+	public List<AccessorIndex.Accessor> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Returns whether instances are created through a builder.
+	 */
+	public boolean isBuilder() {
+		return buildMethod != null;
+	}
+
+	/**
+	 * Writes the declaration of the variable {@code varName} initialized with a
+	 * new instance. {@code values} supplies the value of the property at each
+	 * index of {@link #getProperties()}, {@code types} the names of the types.
+	 */
+	public void write(String varName, IntFunction<String> values, TypeNames types, SnippetWriter out) {
+		String typeName = types.name(type);
+		out.expectLines(isBuilder() ? properties.size() + 2 : 1);
+		out.newLine().append(typeName).append(' ').append(varName).append(" = ");
+		if (isBuilder()) {
+			out.append(types.name(type.getErasure())).append(".builder()");
+			for (int i = 0; i < properties.size(); i++) {
+				out.continueLine().append('.').append(properties.get(i).method().getName()).append('(')
+						.append(values.apply(i)).append(')');
+			}
+			out.continueLine().append('.').append(buildMethod.getName()).append("();");
+			return;
+		}
+		out.append("new ").append(typeName).append('(');
+		for (int i = 0; i < properties.size(); i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			out.append(values.apply(i));
+		}
+		out.append(");");
+	}
+}
@@ -0,0 +1,280 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+
+/**
+ * Maps offsets of a compilation unit to the declarations found there by
+ * {@link HandlerHelper.VariableFinder} and
+ * {@link GenSettergetterConverterHandler.MethodFinder}, in O(log n).
+ * <p>
+ * Both finders return the last node in visiting order whose source range,
+ * including its end, contains the offset. The index records these ranges in a
+ * single walk and turns them into a step function: a sorted array of the
+ * offsets where the answer changes and the source range of the answer from
+ * each of them on, which is searched with a binary search. The answer is then
+ * looked up by its range, descending only into the nodes containing it.
+ * <p>
+ * The indexes are kept in a weak side table keyed by their AST, so an index
+ * lives as long as its AST and a reconcile, which produces a new AST, never
+ * meets a stale one; a modification of the AST itself discards it. The index
+ * only holds source ranges, not nodes, which would keep the AST and thus the
+ * entry alive. As the walk costs more
+ * than a single pruned search, an AST is only indexed once it is searched a
+ * second time, e.g. the shared AST of an editor by the quick assists and the
+ * following commands, while an AST parsed for one command is searched by the
+ * finders.
+ */
+final class DeclarationIndex {
+
+	/**
+	 * The index of each searched AST, or the modification count at which an
+	 * AST was first searched. The shared AST is searched by several threads.
+	 */
+	private static final Map<CompilationUnit, Object> INDEXES = new WeakHashMap<>();
+	private static final Object LOCK = new Object();
+
+	private final long modificationCount;
+	private final Steps variables;
+	private final Steps methods;
+
+	private DeclarationIndex(long modificationCount, Steps variables, Steps methods) {
+		this.modificationCount = modificationCount;
+		this.variables = variables;
+		this.methods = methods;
+	}
+
+	/**
+	 * Returns the innermost variable declaration at the given offset, as found by
+	 * {@link HandlerHelper.VariableFinder}, or {@code null}.
+	 */
+	static VariableDeclaration findVariable(CompilationUnit ast, int offset) {
+		DeclarationIndex index = get(ast);
+		if (index != null) {
+			return index.variables.find(ast, offset, VariableDeclaration.class);
+		}
+		HandlerHelper.VariableFinder finder = new HandlerHelper.VariableFinder(offset);
+		ast.accept(finder);
+		return finder.getDeclaration();
+	}
+
+	/**
+	 * Returns the innermost method declaration containing the given offset, as
+	 * found by {@link GenSettergetterConverterHandler.MethodFinder}, or
+	 * {@code null}.
+	 */
+	static MethodDeclaration findMethod(CompilationUnit ast, int offset) {
+		DeclarationIndex index = get(ast);
+		if (index != null) {
+			return index.methods.find(ast, offset, MethodDeclaration.class);
+		}
+		GenSettergetterConverterHandler.MethodFinder finder = new GenSettergetterConverterHandler.MethodFinder(
+				offset);
+		ast.accept(finder);
+		return finder.getMethod();
+	}
+
+	/**
+	 * Returns the index of the given AST, building it if the AST was searched
+	 * before, or {@code null} on its first search.
+	 */
+	private static DeclarationIndex get(CompilationUnit ast) {
+		long modificationCount = ast.getAST().modificationCount();
+		synchronized (LOCK) {
+			Object entry = INDEXES.get(ast);
+			if (entry instanceof DeclarationIndex index && index.modificationCount == modificationCount) {
+				return index;
+			}
+			if (!(entry instanceof Long searched) || searched != modificationCount) {
+				INDEXES.put(ast, modificationCount);
+				return null;
+			}
+		}
+		// built outside the lock, a concurrent search of the same AST builds an equal index
+		DeclarationIndex index = build(ast, modificationCount);
+		synchronized (LOCK) {
+			INDEXES.put(ast, index);
+		}
+		return index;
+	}
+
+	private static DeclarationIndex build(CompilationUnit ast, long modificationCount) {
+		RangeCollector collector = new RangeCollector();
+		ast.accept(collector);
+		return new DeclarationIndex(modificationCount, collector.variables.toSteps(),
+				collector.methods.toSteps());
+	}
+
+	/**
+	 * Collects the source ranges that the finders match, in visiting order.
+	 */
+	private static final class RangeCollector extends ASTVisitor {
+		private final Ranges variables = new Ranges();
+		private final Ranges methods = new Ranges();
+
+		@Override
+		public boolean visit(VariableDeclarationStatement node) {
+			addFirstFragment(node, node.fragments());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationExpression node) {
+			addFirstFragment(node, node.fragments());
+			return true;
+		}
+
+		@Override
+		public boolean visit(FieldDeclaration node) {
+			addFirstFragment(node, node.fragments());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			variables.add(node, node);
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			variables.add(node, node);
+			return true;
+		}
+
+		@Override
+		public boolean visit(MethodDeclaration node) {
+			methods.add(node, node);
+			return true;
+		}
+
+		/**
+		 * The caret on the type of a declaration selects its first fragment.
+		 */
+		private void addFirstFragment(ASTNode node, List<?> fragments) {
+			if (!fragments.isEmpty() && fragments.get(0) instanceof VariableDeclarationFragment f) {
+				variables.add(node, f);
+			}
+		}
+	}
+
+	/**
+	 * Source ranges, with inclusive ends, and the source ranges of their values
+	 * in visiting order.
+	 */
+	private static final class Ranges {
+		private int[] starts = new int[16];
+		private int[] ends = new int[16];
+		private int[] valueStarts = new int[16];
+		private int[] valueLengths = new int[16];
+		private int n;
+
+		void add(ASTNode node, ASTNode value) {
+			if (n == starts.length) {
+				starts = Arrays.copyOf(starts, n * 2);
+				ends = Arrays.copyOf(ends, n * 2);
+				valueStarts = Arrays.copyOf(valueStarts, n * 2);
+				valueLengths = Arrays.copyOf(valueLengths, n * 2);
+			}
+			starts[n] = node.getStartPosition();
+			ends[n] = node.getStartPosition() + node.getLength();
+			valueStarts[n] = value.getStartPosition();
+			valueLengths[n] = value.getLength();
+			n++;
+		}
+
+		/**
+		 * Sweeps over the range boundaries, keeping the ranges that contain the
+		 * current offset in a heap ordered by visiting order, latest first. Ranges
+		 * that ended are only removed when they come to the top, as only the top is
+		 * the answer.
+		 */
+		Steps toSteps() {
+			Integer[] byStart = new Integer[n];
+			int[] points = new int[2 * n];
+			for (int i = 0; i < n; i++) {
+				byStart[i] = i;
+				points[2 * i] = starts[i];
+				points[2 * i + 1] = ends[i] + 1;
+			}
+			Arrays.sort(byStart, (a, b) -> Integer.compare(starts[a], starts[b]));
+			Arrays.sort(points);
+
+			PriorityQueue<Integer> active = new PriorityQueue<>((a, b) -> Integer.compare(b, a));
+			int[] stepStarts = new int[points.length];
+			// the range index of the value of each step, -1 for none
+			int[] stepValues = new int[points.length];
+			int size = 0;
+			int next = 0;
+			for (int p = 0; p < points.length; p++) {
+				int point = points[p];
+				if (p > 0 && point == points[p - 1]) {
+					continue;
+				}
+				while (next < n && starts[byStart[next]] <= point) {
+					active.add(byStart[next++]);
+				}
+				while (!active.isEmpty() && ends[active.peek()] < point) {
+					active.poll();
+				}
+				int value = active.isEmpty() ? -1 : active.peek();
+				if (size == 0 || stepValues[size - 1] != value) {
+					stepStarts[size] = point;
+					stepValues[size++] = value;
+				}
+			}
+			int[] starts = Arrays.copyOf(stepStarts, size);
+			int[] valueStarts = new int[size];
+			int[] valueLengths = new int[size];
+			for (int i = 0; i < size; i++) {
+				valueStarts[i] = stepValues[i] < 0 ? -1 : this.valueStarts[stepValues[i]];
+				valueLengths[i] = stepValues[i] < 0 ? 0 : this.valueLengths[stepValues[i]];
+			}
+			return new Steps(starts, valueStarts, valueLengths);
+		}
+	}
+
+	/**
+	 * A step function from offsets to the source ranges of values: the node at
+	 * {@code valueStarts[i]} of length {@code valueLengths[i]} applies from
+	 * {@code starts[i]} up to the next start; a negative value start stands for
+	 * none.
+	 */
+	private record Steps(int[] starts, int[] valueStarts, int[] valueLengths) {
+
+		<T extends ASTNode> T find(CompilationUnit ast, int offset, Class<T> type) {
+			int i = Arrays.binarySearch(starts, offset);
+			if (i < 0) {
+				// the insertion point is the first start after the offset
+				i = -i - 2;
+			}
+			if (i < 0 || valueStarts[i] < 0) {
+				return null;
+			}
+			int start = valueStarts[i];
+			int length = valueLengths[i];
+			// the innermost node covering the range may be a child of the same range
+			ASTNode node = NodeFinder.perform(ast, start, length);
+			while (node != null && !(type.isInstance(node) && node.getStartPosition() == start
+					&& node.getLength() == length)) {
+				node = node.getParent();
+			}
+			return type.cast(node);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+
+/**
+ * Generates setter calls that also instantiate and populate nested bean types
+ * up to a maximum depth. A setter whose parameter is a bean type receives a
+ * new instance of that type, populated in turn; all other setters receive
+ * {@link HandlerHelper#defaultValueFor(ITypeBinding, TypeNames)}. The setter
+ * calls are rendered with the {@linkplain Templates#setterWithDefault() setter
+ * with default value template}. Nested records and types with a builder are
+ * created in their {@link Construction} form, with their nested values declared
+ * first. The nested instances are declared under names not yet used in the
+ * enclosing member, including those declared for earlier variables of the same
+ * edit.
+ * <p>
+ * A type that already appears on the path from the root is not expanded again,
+ * so cyclic references are left {@code null}. As the path decides which types
+ * are left out, the expansion plan of each type is built once per generator and
+ * path from the root and then reused for all properties of that type on the
+ * same path.
+ */
+public final class DeepSetterGenerator {
+
+	private final int maxDepth;
+	private final TypeNames types;
+	private final Template template = Templates.setterWithDefault();
+	private final Template.Context ctx;
+	private final Map<String, Plan> plans = new HashMap<>();
+	/** The erasure keys of the types on the path from the root, in order. */
+	private final Set<String> path = new LinkedHashSet<>();
+	private final LocalNames locals;
+
+	/**
+	 * One property of a plan, set through a setter or passed to the construction.
+	 * {@code nested} is {@code null} when the property receives {@code value}.
+	 */
+	private record Step(AccessorIndex.Accessor setter, String value, ITypeBinding nestedType, Plan nested) {
+	}
+
+	/**
+	 * The steps that populate a type; {@code construction} is {@code null} for a
+	 * bean, whose steps are setter calls.
+	 */
+	private record Plan(Construction construction, List<Step> steps) {
+	}
+
+	/**
+	 * @param maxDepth how many levels of nested types to expand; {@code 0} only
+	 *                 calls the setters of the root variable
+	 * @param types    the names to refer to types by
+	 * @param locals   the names of the variables in use where the lines are
+	 *                 inserted
+	 */
+	public DeepSetterGenerator(int maxDepth, TypeNames types, LocalNames locals) {
+		this.maxDepth = maxDepth;
+		this.types = types;
+		this.locals = locals;
+		this.ctx = new Template.Context().types(types);
+	}
+
+	/**
+	 * Writes the lines that populate the variable {@code varName} of the given
+	 * type to {@code out}.
+	 */
+	public void generate(String varName, ITypeBinding type, SnippetWriter out) {
+		Plan plan = plan(type, maxDepth);
+		if (plan.construction() == null) {
+			emit(varName, plan, out);
+		}
+	}
+
+	private Plan plan(ITypeBinding type, int depth) {
+		String key = type.getKey() + '/' + String.join("/", path);
+		Plan plan = plans.get(key);
+		if (plan != null) {
+			return plan;
+		}
+		path.add(type.getErasure().getKey());
+		Construction construction = Construction.find(type);
+		List<Step> steps = new ArrayList<>();
+		for (AccessorIndex.Accessor setter : construction != null ? construction.getProperties()
+				: AccessorCache.getIndex(type).getAccessors()) {
+			if (construction == null && setter.kind() != AccessorIndex.Kind.SETTER) {
+				continue;
+			}
+			ITypeBinding param = setter.type();
+			if (depth > 0 && isExpandable(param) && !path.contains(param.getErasure().getKey())) {
+				steps.add(new Step(setter, null, param, plan(param, depth - 1)));
+			} else {
+				steps.add(new Step(setter, HandlerHelper.defaultValueFor(param, types), null, null));
+			}
+		}
+		path.remove(type.getErasure().getKey());
+		plan = new Plan(construction, steps);
+		plans.put(key, plan);
+		return plan;
+	}
+
+	private void emit(String varName, Plan plan, SnippetWriter out) {
+		out.expectLines(plan.steps().size());
+		for (Step step : plan.steps()) {
+			String value = step.nested() != null ? declare(step.nestedType(), step.nested(), out) : step.value();
+			AccessorIndex.Accessor setter = step.setter();
+			ctx.var(varName).property(setter.property(), setter.method(), null,
+					setter.method().getParameterTypes()[0], value);
+			template.render(out, ctx);
+		}
+	}
+
+	/**
+	 * Declares a new variable holding a populated instance of the given type and
+	 * returns its name.
+	 */
+	private String declare(ITypeBinding type, Plan plan, SnippetWriter out) {
+		String name = locals.add(HandlerHelper.decapitalize(type.getErasure().getName()));
+		if (plan.construction() == null) {
+			String typeName = types.name(type);
+			out.newLine().append(typeName).append(' ').append(name).append(" = new ").append(typeName).append("();");
+			emit(name, plan, out);
+			return name;
+		}
+		List<Step> steps = plan.steps();
+		String[] values = new String[steps.size()];
+		for (int i = 0; i < values.length; i++) {
+			Step step = steps.get(i);
+			values[i] = step.nested() != null ? declare(step.nestedType(), step.nested(), out) : step.value();
+		}
+		plan.construction().write(name, i -> values[i], types, out);
+		return name;
+	}
+
+	/**
+	 * Returns whether the type is worth instantiating: a concrete, non-JDK class
+	 * with an accessible no-arg constructor and at least one setter, a record or a
+	 * class with a builder.
+	 */
+	private static boolean isExpandable(ITypeBinding type) {
+		if (type == null || !(type.isClass() || type.isRecord()) || type.isArray() || type.isEnum()
+				|| Modifier.isAbstract(type.getModifiers())) {
+			return false;
+		}
+		if (type.isMember() && !Modifier.isStatic(type.getModifiers())) {
+			return false;
+		}
+		String name = type.getErasure().getQualifiedName();
+		if (name.startsWith("java.") || name.startsWith("javax.")) {
+			return false;
+		}
+		return HandlerHelper.hasAccessibleNoArgConstructor(type) && !AccessorCache.getSetters(type).isEmpty()
+				|| Construction.find(type) != null;
+	}
+}
@@ -0,0 +1,70 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.List;
+
+/**
+ * A default value supplied by an {@link IDefaultValueProvider}: a Java
+ * expression together with the qualified names of the types it refers to. The
+ * expression refers to the type at index {@code i} as <code>{i}</code>, which is
+ * replaced by the name the type is visible under where the value is inserted:
+ * its simple name if it is or can be imported, its qualified name otherwise.
+ * For example, {@code DefaultValue.of("{0}.ZERO", "java.math.BigDecimal")}.
+ *
+ * @param expression the expression, with a placeholder for each type
+ * @param types      the qualified names of the types, such as
+ *                   {@code java.util.ArrayList} or {@code p.Outer.Inner}
+ */
+public record DefaultValue(String expression, List<String> types) {
+
+	public DefaultValue {
+		types = List.copyOf(types);
+	}
+
+	/**
+	 * Returns a value whose expression refers to the given types.
+	 */
+	public static DefaultValue of(String expression, String... types) {
+		return new DefaultValue(expression, List.of(types));
+	}
+
+	/**
+	 * Returns the expression with the types named by {@code names}.
+	 */
+	public String render(TypeNames names) {
+		if (types.isEmpty()) {
+			return expression;
+		}
+		StringBuilder sb = new StringBuilder(expression.length() + 16);
+		int i = 0;
+		while (i < expression.length()) {
+			char c = expression.charAt(i);
+			int end = c == '{' ? expression.indexOf('}', i + 1) : -1;
+			int index = end > i + 1 ? parseIndex(expression.substring(i + 1, end)) : -1;
+			if (index >= 0 && index < types.size()) {
+				sb.append(names.name(types.get(index)));
+				i = end + 1;
+			} else {
+				sb.append(c);
+				i++;
+			}
+		}
+		return sb.toString();
+	}
+
+	private static int parseIndex(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (!Character.isDigit(text.charAt(i))) {
+				return -1;
+			}
+		}
+		return Integer.parseInt(text);
+	}
+
+	/**
+	 * Returns the expression with all types qualified.
+	 */
+	@Override
+	public String toString() {
+		return render(TypeNames.QUALIFIED);
+	}
+}
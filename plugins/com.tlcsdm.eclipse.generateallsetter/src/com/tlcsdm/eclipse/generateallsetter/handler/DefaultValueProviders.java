@@ -0,0 +1,304 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+
+/**
+ * The registry of {@link IDefaultValueProvider}s. Providers contributed to the
+ * {@value #EXTENSION_POINT_ID} extension point are consulted before the built-in
+ * ones, which cover primitives and their wrappers, {@code String}, numbers,
+ * dates, {@code UUID}, collections, maps, enums and arrays.
+ * <p>
+ * Providers registered for a type are kept in a table keyed by the qualified
+ * name of its erasure, and the providers that apply to a type are resolved once
+ * per erasure: the table lookup, the walk over the supertypes for providers
+ * registered for subtypes and the providers registered for any type. Later
+ * lookups of the same type only iterate over the memoized providers.
+ */
+public final class DefaultValueProviders {
+
+	/** The id of the extension point for default value providers. */
+	public static final String EXTENSION_POINT_ID = Activator.PLUGIN_ID + ".defaultValueProviders";
+
+	private static final DefaultValue NULL = DefaultValue.of("null");
+	private static final IDefaultValueProvider[] NONE = new IDefaultValueProvider[0];
+
+	private static volatile Registry registry;
+	private static final Map<String, IDefaultValueProvider[]> RESOLVED = new ConcurrentHashMap<>();
+
+	private DefaultValueProviders() {
+	}
+
+	/**
+	 * Returns the default value of a property of the given type, {@code null} if
+	 * no provider supplies one.
+	 */
+	public static DefaultValue getDefaultValue(ITypeBinding type) {
+		if (type == null) {
+			return NULL;
+		}
+		for (IDefaultValueProvider provider : getProviders(type)) {
+			try {
+				DefaultValue value = provider.getDefaultValue(type);
+				if (value != null) {
+					return value;
+				}
+			} catch (RuntimeException | LinkageError e) {
+				HandlerHelper.logWarning("Default value provider " + provider.getClass().getName() + " failed", e);
+			}
+		}
+		return NULL;
+	}
+
+	/**
+	 * Forgets the resolved providers of all types, e.g. after their hierarchy has
+	 * changed.
+	 */
+	public static void clear() {
+		RESOLVED.clear();
+	}
+
+	/**
+	 * Forgets the resolved providers and the contributed extensions, which are
+	 * read again on the next lookup.
+	 */
+	public static void reset() {
+		registry = null;
+		RESOLVED.clear();
+	}
+
+	private static IDefaultValueProvider[] getProviders(ITypeBinding type) {
+		ITypeBinding erasure = type.getErasure();
+		String key = erasure.getKey();
+		Registry r = getRegistry();
+		if (key == null) {
+			return r.resolve(erasure);
+		}
+		IDefaultValueProvider[] providers = RESOLVED.get(key);
+		if (providers == null) {
+			providers = r.resolve(erasure);
+			RESOLVED.put(key, providers);
+		}
+		return providers;
+	}
+
+	private static Registry getRegistry() {
+		Registry r = registry;
+		if (r == null) {
+			synchronized (DefaultValueProviders.class) {
+				r = registry;
+				if (r == null) {
+					r = new Registry();
+					if (Activator.getDefault() != null) {
+						r.addExtensions(Platform.getExtensionRegistry());
+					}
+					r.addBuiltins();
+					registry = r;
+				}
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * The providers registered for a type, for its subtypes and for any type, in
+	 * registration order.
+	 */
+	private static final class Registry {
+		private final Map<String, List<IDefaultValueProvider>> exact = new HashMap<>();
+		private final Map<String, List<IDefaultValueProvider>> subtypes = new HashMap<>();
+		private final List<IDefaultValueProvider> any = new ArrayList<>();
+
+		void add(String type, boolean includeSubtypes, IDefaultValueProvider provider) {
+			if (type == null || type.isEmpty()) {
+				any.add(provider);
+			} else {
+				(includeSubtypes ? subtypes : exact).computeIfAbsent(type, k -> new ArrayList<>()).add(provider);
+			}
+		}
+
+		void addExtensions(IExtensionRegistry extensionRegistry) {
+			if (extensionRegistry == null) {
+				return;
+			}
+			for (IConfigurationElement element : extensionRegistry
+					.getConfigurationElementsFor(EXTENSION_POINT_ID)) {
+				if (!"provider".equals(element.getName())) {
+					continue;
+				}
+				try {
+					IDefaultValueProvider provider = (IDefaultValueProvider) element
+							.createExecutableExtension("class");
+					add(element.getAttribute("type"), Boolean.parseBoolean(element.getAttribute("subtypes")),
+							provider);
+				} catch (CoreException | ClassCastException e) {
+					HandlerHelper.logError("Cannot create default value provider of "
+							+ element.getContributor().getName(), e);
+				}
+			}
+		}
+
+		void addBuiltins() {
+			constant("\"\"", "java.lang.String", "java.lang.CharSequence");
+			constant("false", "boolean", "java.lang.Boolean");
+			constant("'\\u0000'", "char", "java.lang.Character");
+			constant("(byte) 0", "byte", "java.lang.Byte");
+			constant("(short) 0", "short", "java.lang.Short");
+			constant("0", "int", "java.lang.Integer");
+			constant("0L", "long", "java.lang.Long");
+			constant("0.0f", "float", "java.lang.Float");
+			constant("0.0d", "double", "java.lang.Double");
+			constant("{0}.ZERO", "java.math.BigDecimal");
+			constant("{0}.ZERO", "java.math.BigInteger");
+			constant("{0}.now()", "java.time.LocalDate");
+			constant("{0}.now()", "java.time.LocalTime");
+			constant("{0}.now()", "java.time.LocalDateTime");
+			constant("{0}.now()", "java.time.OffsetDateTime");
+			constant("{0}.now()", "java.time.ZonedDateTime");
+			constant("{0}.now()", "java.time.Instant");
+			constant("{0}.ZERO", "java.time.Duration");
+			constant("new {0}()", "java.util.Date");
+			constant("{0}.randomUUID()", "java.util.UUID");
+			constant("{0}.empty()", "java.util.Optional");
+			instance("java.util.ArrayList", "java.lang.Iterable", "java.util.Collection", "java.util.List",
+					"java.util.ArrayList");
+			instance("java.util.HashSet", "java.util.Set", "java.util.HashSet");
+			instance("java.util.TreeSet", "java.util.SortedSet", "java.util.NavigableSet", "java.util.TreeSet");
+			instance("java.util.HashMap", "java.util.Map", "java.util.HashMap");
+			instance("java.util.TreeMap", "java.util.SortedMap", "java.util.NavigableMap", "java.util.TreeMap");
+			instance("java.util.ArrayDeque", "java.util.Queue", "java.util.Deque", "java.util.ArrayDeque");
+			add("java.util.Collection", true, DefaultValueProviders::newInstance);
+			add("java.util.Map", true, DefaultValueProviders::newInstance);
+			add(null, false, DefaultValueProviders::firstEnumConstant);
+			add(null, false, DefaultValueProviders::emptyArray);
+		}
+
+		/**
+		 * Registers a constant expression for the given types; a placeholder
+		 * <code>{0}</code> in it refers to the first type.
+		 */
+		private void constant(String expression, String... types) {
+			DefaultValue value = expression.contains("{0}") ? DefaultValue.of(expression, types[0])
+					: DefaultValue.of(expression);
+			IDefaultValueProvider provider = type -> value;
+			for (String type : types) {
+				add(type, false, provider);
+			}
+		}
+
+		/**
+		 * Registers a new instance of the generic class {@code implementation} for
+		 * the given types.
+		 */
+		private void instance(String implementation, String... types) {
+			DefaultValue value = DefaultValue.of("new {0}<>()", implementation);
+			IDefaultValueProvider provider = type -> value;
+			for (String type : types) {
+				add(type, false, provider);
+			}
+		}
+
+		/**
+		 * Collects the providers for the given erasure: those registered for it,
+		 * those registered for the subtypes of it or of its nearest supertypes first,
+		 * and those registered for any type.
+		 */
+		IDefaultValueProvider[] resolve(ITypeBinding erasure) {
+			List<IDefaultValueProvider> providers = new ArrayList<>();
+			List<IDefaultValueProvider> registered = exact.get(erasure.getQualifiedName());
+			if (registered != null) {
+				providers.addAll(registered);
+			}
+			if (!subtypes.isEmpty() && !erasure.isPrimitive() && !erasure.isArray()) {
+				Set<String> visited = new HashSet<>();
+				Deque<ITypeBinding> queue = new ArrayDeque<>();
+				queue.add(erasure);
+				while (!queue.isEmpty()) {
+					ITypeBinding t = queue.poll();
+					if (!visited.add(t.getErasure().getQualifiedName())) {
+						continue;
+					}
+					registered = subtypes.get(t.getErasure().getQualifiedName());
+					if (registered != null) {
+						providers.addAll(registered);
+					}
+					if (t.getSuperclass() != null) {
+						queue.add(t.getSuperclass());
+					}
+					for (ITypeBinding i : t.getInterfaces()) {
+						queue.add(i);
+					}
+				}
+			}
+			providers.addAll(any);
+			return providers.isEmpty() ? NONE : providers.toArray(NONE);
+		}
+	}
+
+	/**
+	 * Instantiates a concrete collection or map class with a non-private no-arg
+	 * constructor.
+	 */
+	private static DefaultValue newInstance(ITypeBinding type) {
+		ITypeBinding erasure = type.getErasure();
+		if (!erasure.isClass() || Modifier.isAbstract(erasure.getModifiers())
+				|| !HandlerHelper.hasAccessibleNoArgConstructor(erasure)) {
+			return null;
+		}
+		return DefaultValue.of(erasure.isGenericType() ? "new {0}<>()" : "new {0}()", erasure.getQualifiedName());
+	}
+
+	/**
+	 * Returns the first declared constant of an enum. The declared fields are not
+	 * reported in declaration order, but their variable ids are.
+	 */
+	private static DefaultValue firstEnumConstant(ITypeBinding type) {
+		if (!type.isEnum()) {
+			return null;
+		}
+		IVariableBinding first = null;
+		for (IVariableBinding field : type.getDeclaredFields()) {
+			if (field.isEnumConstant() && (first == null || field.getVariableId() < first.getVariableId())) {
+				first = field;
+			}
+		}
+		if (first == null) {
+			return null;
+		}
+		String qualifiedName = type.getErasure().getQualifiedName();
+		// a local enum has no qualified name and is only visible by its simple name
+		return qualifiedName.isEmpty() ? DefaultValue.of(type.getName() + "." + first.getName())
+				: DefaultValue.of("{0}." + first.getName(), qualifiedName);
+	}
+
+	private static DefaultValue emptyArray(ITypeBinding type) {
+		if (!type.isArray()) {
+			return null;
+		}
+		ITypeBinding element = type.getElementType().getErasure();
+		StringBuilder sb = new StringBuilder("new ").append(element.isPrimitive() ? element.getName() : "{0}")
+				.append("[0]");
+		for (int i = 1; i < type.getDimensions(); i++) {
+			sb.append("[]");
+		}
+		return element.isPrimitive() ? DefaultValue.of(sb.toString())
+				: DefaultValue.of(sb.toString(), element.getQualifiedName());
+	}
+}
@@ -1,72 +1,32 @@
 package com.tlcsdm.eclipse.generateallsetter.handler;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import org.eclipse.core.commands.AbstractHandler;
-import org.eclipse.core.commands.ExecutionEvent;
-import org.eclipse.core.commands.ExecutionException;
-import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
-import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.ui.handlers.HandlerUtil;
 
-public class GenAllGetterHandler extends AbstractHandler {
+public class GenAllGetterHandler extends AbstractVariableGenerateHandler {
 
-	@Override
-	public Object execute(ExecutionEvent event) throws ExecutionException {
-		HandlerHelper.EditorContext ctx = HandlerHelper.getEditorContext(HandlerUtil.getActiveEditor(event));
-		if (ctx == null) {
-			return null;
-		}
-
-		try {
-			CompilationUnit cu = HandlerHelper.parseCompilationUnit(ctx.compilationUnit());
-
-			HandlerHelper.VariableFinder finder = new HandlerHelper.VariableFinder(ctx.offset());
-			cu.accept(finder);
-			VariableDeclarationFragment fragment = finder.getFragment();
-
-			ITypeBinding type = HandlerHelper.resolveType(fragment);
-			if (type == null) {
-				return null;
-			}
-
-			String varName = fragment.getName().getIdentifier();
-
-			List<String> lines = new ArrayList<>();
-			for (IMethodBinding m : HandlerHelper.collectGetters(type)) {
-				String name = m.getName();
-				String propName;
-				if (name.startsWith("get")) {
-					propName = name.substring(3);
-				} else {
-					propName = name.substring(2);
-				}
-				if (propName.isEmpty()) {
-					continue;
-				}
-				propName = propName.substring(0, 1).toLowerCase() + propName.substring(1);
-
-				ITypeBinding ret = m.getReturnType();
-				String typeName = (ret == null) ? "Object" : ret.getName();
-				lines.add(typeName + " " + propName + " = " + varName + "." + name + "();");
-			}
+	public GenAllGetterHandler() {
+		super("Generate all getter");
+	}
 
-			if (lines.isEmpty()) {
-				return null;
+	@Override
+	protected void emit(String varName, ITypeBinding type, TypeNames types, LocalNames locals,
+			SnippetWriter out) {
+		Template template = Templates.getter();
+		AccessorIndex index = AccessorCache.getIndex(type);
+		List<AccessorIndex.Accessor> accessors = index.getAccessors();
+		out.expectLines(accessors.size());
+		Template.Context ctx = new Template.Context().types(types).locals(locals).var(varName);
+		boolean needsSetter = template.uses(Template.Variable.SETTER);
+		for (AccessorIndex.Accessor a : accessors) {
+			if (!a.kind().isGetter()) {
+				continue;
 			}
-
-			HandlerHelper.insertLinesAfterOffset(ctx.document(), ctx.offset(), lines);
-
-		} catch (BadLocationException e) {
-			HandlerHelper.logError("Failed to insert getter code", e);
-		} catch (Exception e) {
-			HandlerHelper.logError("Unexpected error generating getters", e);
+			AccessorIndex.Accessor setter = needsSetter ? index.getSetter(a.property()) : null;
+			ctx.property(a.property(), setter == null ? null : setter.method(), a.method(),
+					a.method().getReturnType(), null);
+			template.render(out, ctx);
 		}
-
-		return null;
 	}
-}
\ No newline at end of file
+}
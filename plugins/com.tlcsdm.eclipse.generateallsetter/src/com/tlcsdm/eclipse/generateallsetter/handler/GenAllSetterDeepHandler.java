@@ -0,0 +1,22 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+import com.tlcsdm.eclipse.generateallsetter.preferences.PreferenceConstants;
+
+public class GenAllSetterDeepHandler extends AbstractVariableGenerateHandler {
+
+	public GenAllSetterDeepHandler() {
+		super("Generate all setter with nested objects");
+	}
+
+	@Override
+	protected void emit(String varName, ITypeBinding type, TypeNames types, LocalNames locals,
+			SnippetWriter out) {
+		Activator activator = Activator.getDefault();
+		int depth = activator != null ? activator.getPreferenceStore().getInt(PreferenceConstants.NESTED_DEPTH)
+				: PreferenceConstants.DEFAULT_NESTED_DEPTH;
+		new DeepSetterGenerator(depth, types, locals).generate(varName, type, out);
+	}
+}
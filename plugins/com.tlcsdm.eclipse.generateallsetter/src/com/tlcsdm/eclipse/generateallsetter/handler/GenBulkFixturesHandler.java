@@ -0,0 +1,89 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.ui.handlers.HandlerUtil;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+
+/**
+ * Generates fixture classes for all types in the selected packages,
+ * compilation units and types using {@link BulkGenerator}. The per-type
+ * outcome and timing is written to the error log as one multi-status.
+ */
+public class GenBulkFixturesHandler extends AbstractHandler {
+
+	@Override
+	public Object execute(ExecutionEvent event) throws ExecutionException {
+		ISelection selection = HandlerUtil.getCurrentSelection(event);
+		if (!(selection instanceof IStructuredSelection structured) || structured.isEmpty()) {
+			return null;
+		}
+		List<?> elements = structured.toList();
+
+		Job job = new Job("Generate fixtures") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					Set<IType> types = new LinkedHashSet<>();
+					for (Object o : elements) {
+						IJavaElement element = Adapters.adapt(o, IJavaElement.class);
+						if (element != null) {
+							BulkGenerator.collectTypes(element, types);
+						}
+					}
+					long start = System.nanoTime();
+					List<BulkGenerator.TypeResult> results = BulkGenerator.generate(types, monitor);
+					logResults(results, System.nanoTime() - start);
+					return Status.OK_STATUS;
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} catch (Exception e) {
+					HandlerHelper.logError("Unexpected error generating fixtures", e);
+					return Status.OK_STATUS;
+				}
+			}
+		};
+		job.setUser(true);
+		job.schedule();
+		return null;
+	}
+
+	private static void logResults(List<BulkGenerator.TypeResult> results, long elapsedNanos) {
+		Activator activator = Activator.getDefault();
+		if (activator == null) {
+			return;
+		}
+		int generated = 0;
+		List<IStatus> children = new ArrayList<>();
+		for (BulkGenerator.TypeResult r : results) {
+			if (r.generated() != null) {
+				generated++;
+			}
+			children.add(new Status(IStatus.INFO, Activator.PLUGIN_ID, r.type().getFullyQualifiedName('.') + ": "
+					+ r.message() + " (" + r.elapsedNanos() / 1_000_000 + " ms)"));
+		}
+		MultiStatus summary = new MultiStatus(Activator.PLUGIN_ID, IStatus.INFO, children.toArray(IStatus[]::new),
+				"Generated " + generated + " of " + results.size() + " fixture classes in "
+						+ elapsedNanos / 1_000_000 + " ms",
+				null);
+		activator.getLog().log(summary);
+	}
+}
@@ -1,100 +1,205 @@
 package com.tlcsdm.eclipse.generateallsetter.handler;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
-import org.eclipse.core.commands.AbstractHandler;
-import org.eclipse.core.commands.ExecutionEvent;
-import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.ui.handlers.HandlerUtil;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 
-public class GenSettergetterConverterHandler extends AbstractHandler {
+public class GenSettergetterConverterHandler extends AbstractGenerateHandler {
+
+	public GenSettergetterConverterHandler() {
+		super("Generate setter getter converter");
+	}
 
 	@Override
-	public Object execute(ExecutionEvent event) throws ExecutionException {
-		HandlerHelper.EditorContext ctx = HandlerHelper.getEditorContext(HandlerUtil.getActiveEditor(event));
-		if (ctx == null) {
+	protected DocumentEdit generate(HandlerHelper.EditorContext ctx, IProgressMonitor monitor) {
+		return generate(AstProvider.sourceOf(ctx.compilationUnit()), ctx.regions(), monitor);
+	}
+
+	/**
+	 * Acquires the AST from the given source and generates the converters for
+	 * the given regions of it.
+	 */
+	DocumentEdit generate(AstProvider.AstSource source, IRegion[] regions, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 3);
+		// a focused AST only has the body of the member around the offset
+		int focalPosition = regions.length > 1 ? -1 : regions[0].getOffset();
+		CompilationUnit cu = AstProvider.acquire(source, focalPosition, subMonitor.split(2)).ast();
+		return generate(cu, regions, subMonitor.split(1));
+	}
+
+	/**
+	 * Generates the converter for the method enclosing {@code offset} of an
+	 * already acquired, possibly focused, AST.
+	 */
+	DocumentEdit generate(CompilationUnit cu, int offset, IProgressMonitor monitor) {
+		return generate(cu, new IRegion[] { new Region(offset, 0) }, monitor);
+	}
+
+	/**
+	 * Generates the converters for the methods enclosing the offsets of the given
+	 * regions as one edit. A method containing several of the offsets gets one
+	 * converter, inserted after the statement at or before the first of them.
+	 */
+	DocumentEdit generate(CompilationUnit cu, IRegion[] regions, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, regions.length);
+		StatementRewriter rewriter = new StatementRewriter(cu);
+		Set<MethodDeclaration> processed = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (IRegion region : regions) {
+			subMonitor.split(1);
+			Metrics.Invocation invocation = Metrics.current();
+			long start = invocation.begin();
+			MethodDeclaration method = DeclarationIndex.findMethod(cu, region.getOffset());
+			invocation.end(Metrics.Phase.FIND, start);
+			if (method != null && processed.add(method)) {
+				insert(method, region.getOffset(), rewriter);
+			}
+		}
+		if (rewriter.isEmpty()) {
 			return null;
 		}
+		return doc -> HandlerHelper.applyEdit(doc, rewriter.createEdit(doc));
+	}
 
-		try {
-			CompilationUnit cu = HandlerHelper.parseCompilationUnit(ctx.compilationUnit());
+	/**
+	 * Records the converter of the given method on {@code rewriter}.
+	 */
+	private static void insert(MethodDeclaration method, int offset, StatementRewriter rewriter) {
+		IMethodBinding mb = method.resolveBinding();
+		if (mb == null) {
+			return;
+		}
+		ITypeBinding returnType = mb.getReturnType();
+		if (returnType == null || returnType.isPrimitive()) {
+			return;
+		}
+		String typeName = returnType.getName();
+		if (typeName == null || typeName.isEmpty()) {
+			return;
+		}
 
-			MethodFinder finder = new MethodFinder(ctx.offset());
-			cu.accept(finder);
-			MethodDeclaration method = finder.getMethod();
-			if (method == null) {
-				return null;
-			}
-			IMethodBinding mb = method.resolveBinding();
-			if (mb == null) {
-				return null;
-			}
-			ITypeBinding returnType = mb.getReturnType();
-			if (returnType == null || returnType.isPrimitive()) {
-				return null;
-			}
-			String typeName = returnType.getName();
-			if (typeName == null || typeName.isEmpty()) {
-				return null;
+		Metrics.Invocation invocation = Metrics.current();
+		long start = invocation.begin();
+		PropertyMatcher matcher = new PropertyMatcher();
+		Set<String> paramNames = new HashSet<>();
+		for (Object o : method.parameters()) {
+			SingleVariableDeclaration param = (SingleVariableDeclaration) o;
+			String paramName = param.getName().getIdentifier();
+			paramNames.add(paramName);
+			IVariableBinding binding = param.resolveBinding();
+			if (binding != null) {
+				matcher.addSource(paramName, binding.getType());
 			}
+		}
 
-			String varName = HandlerHelper.decapitalize(typeName);
+		String varName = HandlerHelper.decapitalize(typeName);
+		for (int i = 2; paramNames.contains(varName); i++) {
+			varName = HandlerHelper.decapitalize(typeName) + i;
+		}
 
-			List<String> lines = new ArrayList<>();
-			lines.add(typeName + " " + varName + " = new " + typeName + "();");
-			for (IMethodBinding m : HandlerHelper.collectSetters(returnType)) {
-				lines.add(varName + "." + m.getName() + "();");
-			}
-			lines.add("return " + varName + ";");
+		Block body = method.getBody();
+		if (body == null) {
+			invocation.end(Metrics.Phase.EMIT, start);
+			return;
+		}
 
-			if (method.getBody() == null) {
-				return null;
+		// records and types with a builder get their values in one expression instead of setter calls
+		Construction construction = Construction.find(returnType);
+		List<AccessorIndex.Accessor> accessors = construction != null ? construction.getProperties()
+				: AccessorCache.getIndex(returnType).getAccessors();
+		PropertyMatcher.Match[] matches = new PropertyMatcher.Match[accessors.size()];
+		StringBuilder unmatched = new StringBuilder();
+		for (int i = 0; i < matches.length; i++) {
+			AccessorIndex.Accessor target = accessors.get(i);
+			if (construction != null || target.kind() == AccessorIndex.Kind.SETTER) {
+				matches[i] = matcher.find(target);
+				if (matches[i] == null) {
+					unmatched.append(unmatched.length() > 0 ? ", " : "").append(target.property());
+				}
 			}
+		}
 
-			IDocument doc = ctx.document();
-			int bodyStart = method.getBody().getStartPosition() + 1;
-			int bodyEnd = method.getBody().getStartPosition() + method.getBody().getLength() - 1;
-
-			int insertOffset;
-			if (ctx.offset() < bodyStart) {
-				insertOffset = bodyStart;
+		TypeNames types = rewriter.getTypeNames();
+		SnippetWriter out = new SnippetWriter(accessors.size() + 3);
+		out.setContinuationIndent(HandlerHelper.getContinuationIndent((CompilationUnit) method.getRoot()));
+		try {
+			if (unmatched.length() > 0) {
+				out.newLine().append("// no matching source property for: ").append(unmatched.toString());
+			}
+			if (construction != null) {
+				construction.write(varName, i -> matches[i] != null ? matches[i].expression()
+						: HandlerHelper.defaultValueFor(accessors.get(i).type(), types), types, out);
 			} else {
-				int line = doc.getLineOfOffset(ctx.offset());
-				int lineEnd = doc.getLineOffset(line) + doc.getLineLength(line);
-				insertOffset = Math.min(lineEnd, bodyEnd);
+				out.newLine().append(typeName).append(' ').append(varName).append(" = new ").append(typeName)
+						.append("();");
+				writeSetters(varName, accessors, matches, types, out);
 			}
-
-			String indent;
-			try {
-				indent = HandlerHelper.getIndentAtOffset(doc, insertOffset);
-			} catch (BadLocationException e) {
-				indent = "";
+			out.newLine().append("return ").append(varName).append(';');
+			invocation.count(Metrics.Counter.LINES_EMITTED, out.getLineCount());
+			invocation.end(Metrics.Phase.EMIT, start);
+
+			// insert after the statement at or before the caret, or first in the body
+			Statement anchor = null;
+			for (Object o : body.statements()) {
+				Statement statement = (Statement) o;
+				if (statement.getStartPosition() > offset) {
+					break;
+				}
+				anchor = statement;
 			}
-
-			StringBuilder sb = new StringBuilder();
-			for (String l : lines) {
-				sb.append(indent).append(l).append(System.lineSeparator());
+			if (anchor != null) {
+				rewriter.insertAfter(anchor, out);
+			} else {
+				rewriter.insertFirst(body, out);
 			}
-
-			doc.replace(insertOffset, 0, System.lineSeparator() + sb.toString());
-
-		} catch (BadLocationException e) {
-			HandlerHelper.logError("Failed to insert converter code", e);
-		} catch (Exception e) {
-			HandlerHelper.logError("Unexpected error generating converter", e);
+		} finally {
+			out.release();
 		}
+	}
 
-		return null;
+	private static void writeSetters(String varName, List<AccessorIndex.Accessor> accessors,
+			PropertyMatcher.Match[] matches, TypeNames types, SnippetWriter out) {
+		Template converter = Templates.converter();
+		Template unmatchedSetter = Templates.setter();
+		Template.Context ctx = new Template.Context().types(types).var(varName);
+		for (int i = 0; i < matches.length; i++) {
+			AccessorIndex.Accessor setter = accessors.get(i);
+			if (setter.kind() != AccessorIndex.Kind.SETTER) {
+				continue;
+			}
+			ITypeBinding param = setter.method().getParameterTypes()[0];
+			PropertyMatcher.Match match = matches[i];
+			if (match != null) {
+				ctx.source(match.sourceVar()).property(setter.property(), setter.method(), match.getter().method(),
+						param, null);
+				converter.render(out, ctx);
+			} else {
+				ctx.source(null).property(setter.property(), setter.method(), null, param, null);
+				unmatchedSetter.render(out, ctx);
+			}
+		}
 	}
 
+	/**
+	 * Finds the innermost method declaration containing an offset, skipping all
+	 * subtrees that do not contain it.
+	 */
 	static class MethodFinder extends ASTVisitor {
 		private final int offset;
 		private MethodDeclaration method;
@@ -104,12 +209,14 @@ public class GenSettergetterConverterHandler extends AbstractHandler {
 		}
 
 		@Override
-		public boolean visit(MethodDeclaration node) {
+		public boolean preVisit2(ASTNode node) {
 			int start = node.getStartPosition();
-			int end = start + node.getLength();
-			if (offset >= start && offset <= end) {
-				this.method = node;
-			}
+			return offset >= start && offset <= start + node.getLength();
+		}
+
+		@Override
+		public boolean visit(MethodDeclaration node) {
+			this.method = node;
 			return true;
 		}
 
@@ -0,0 +1,223 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TextElement;
+import org.eclipse.jdt.ui.text.java.ContentAssistInvocationContext;
+import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.IContextInformation;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Offers the generate commands as completion proposals on a variable that
+ * starts a statement, e.g. {@code user.setA|}. Applying a proposal replaces the
+ * variable, the dot and the typed prefix with the generated lines.
+ * <p>
+ * Content assist must not wait for a reconcile, so the shared AST is only used
+ * if it is available right away; the text typed since it was built comes after
+ * the variable, whose name is checked against the AST before its binding is
+ * used. Whether a command applies is decided from the kinds of accessors of the
+ * variable's type, as reported by the {@link SignatureIndex}, and the code is
+ * only generated when a proposal is applied.
+ */
+public class GenerateCompletionProposalComputer implements IJavaCompletionProposalComputer {
+
+	private static final String GETTERS = "getAll";
+	private static final String SETTERS_WITH_DEFAULT = "setAll";
+	private static final String SETTERS_NO_DEFAULT = "setAllNoDefault";
+	private static final String SETTERS_DEEP = "setAllNested";
+	private static final int RELEVANCE = 100;
+
+	private final GenAllGetterHandler getter = new GenAllGetterHandler();
+	private final GenAllSetterWithDefaultHandler setterWithDefault = new GenAllSetterWithDefaultHandler();
+	private final GenAllSetterNoDefaultHandler setterNoDefault = new GenAllSetterNoDefaultHandler();
+	private final GenAllSetterDeepHandler deepSetter = new GenAllSetterDeepHandler();
+
+	@Override
+	public void sessionStarted() {
+	}
+
+	@Override
+	public List<ICompletionProposal> computeCompletionProposals(ContentAssistInvocationContext context,
+			IProgressMonitor monitor) {
+		if (!(context instanceof JavaContentAssistInvocationContext javaContext)) {
+			return Collections.emptyList();
+		}
+		ICompilationUnit icu = javaContext.getCompilationUnit();
+		IDocument document = context.getDocument();
+		if (icu == null || document == null) {
+			return Collections.emptyList();
+		}
+		try {
+			return compute(icu, document, context.getInvocationOffset());
+		} catch (BadLocationException | RuntimeException e) {
+			HandlerHelper.logWarning("Failed to compute completion proposals", e);
+			return Collections.emptyList();
+		}
+	}
+
+	private List<ICompletionProposal> compute(ICompilationUnit icu, IDocument document, int offset)
+			throws BadLocationException {
+		// the text must be "receiver.prefix" alone on its line, up to the caret
+		int prefixStart = offset;
+		while (prefixStart > 0 && Character.isJavaIdentifierPart(document.getChar(prefixStart - 1))) {
+			prefixStart--;
+		}
+		if (prefixStart == 0 || document.getChar(prefixStart - 1) != '.') {
+			return Collections.emptyList();
+		}
+		String prefix = document.get(prefixStart, offset - prefixStart);
+		if (!GenerateProposal.matches(GETTERS, prefix) && !GenerateProposal.matches(SETTERS_NO_DEFAULT, prefix)
+				&& !GenerateProposal.matches(SETTERS_DEEP, prefix)) {
+			return Collections.emptyList();
+		}
+		int receiverEnd = prefixStart - 1;
+		int receiverStart = receiverEnd;
+		while (receiverStart > 0 && Character.isJavaIdentifierPart(document.getChar(receiverStart - 1))) {
+			receiverStart--;
+		}
+		if (receiverStart == receiverEnd || !Character.isJavaIdentifierStart(document.getChar(receiverStart))) {
+			return Collections.emptyList();
+		}
+		IRegion line = document.getLineInformationOfOffset(offset);
+		if (!isBlank(document, line.getOffset(), receiverStart)
+				|| !isBlank(document, offset, line.getOffset() + line.getLength())) {
+			return Collections.emptyList();
+		}
+
+		CompilationUnit ast = AstProvider.peekSharedAst(icu);
+		if (ast == null) {
+			return Collections.emptyList();
+		}
+		String receiver = document.get(receiverStart, receiverEnd - receiverStart);
+		ASTNode node = NodeFinder.perform(ast, receiverStart, receiverEnd - receiverStart);
+		if (!(node instanceof SimpleName name) || !receiver.equals(name.getIdentifier()) || !isInBlock(name)
+				|| !(name.resolveBinding() instanceof IVariableBinding variable)) {
+			return Collections.emptyList();
+		}
+		ITypeBinding type = variable.getType();
+		if (type == null || type.isPrimitive() || type.isArray()) {
+			return Collections.emptyList();
+		}
+
+		Set<AccessorIndex.Kind> kinds = SignatureIndex.getKinds(type);
+		List<ICompletionProposal> proposals = new ArrayList<>();
+		Completion completion = new Completion(ast, receiver, type, receiverStart, prefixStart, offset);
+		if (GenerateQuickAssistProcessor.hasGetters(kinds)) {
+			completion.add(getter, GETTERS, prefix, proposals);
+		}
+		if (kinds.contains(AccessorIndex.Kind.SETTER) || kinds.contains(AccessorIndex.Kind.FLUENT_SETTER)) {
+			completion.add(setterWithDefault, SETTERS_WITH_DEFAULT, prefix, proposals);
+			completion.add(setterNoDefault, SETTERS_NO_DEFAULT, prefix, proposals);
+		}
+		if (kinds.contains(AccessorIndex.Kind.SETTER)) {
+			completion.add(deepSetter, SETTERS_DEEP, prefix, proposals);
+		}
+		return proposals;
+	}
+
+	private static boolean isBlank(IDocument document, int start, int end) throws BadLocationException {
+		for (int i = start; i < end; i++) {
+			if (!Character.isWhitespace(document.getChar(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the node is in a block of statements, and not in a comment
+	 * or a declaration outside a method body.
+	 */
+	private static boolean isInBlock(ASTNode node) {
+		for (ASTNode current = node.getParent(); current != null; current = current.getParent()) {
+			if (current instanceof Block) {
+				return true;
+			}
+			if (current instanceof BodyDeclaration || current instanceof TextElement) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public List<IContextInformation> computeContextInformation(ContentAssistInvocationContext context,
+			IProgressMonitor monitor) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public String getErrorMessage() {
+		return null;
+	}
+
+	@Override
+	public void sessionEnded() {
+	}
+
+	/**
+	 * The receiver of a completion, the AST it was resolved in and the range of
+	 * text its proposals replace.
+	 */
+	private record Completion(CompilationUnit ast, String varName, ITypeBinding type, int receiverStart, int prefixStart, int offset) {
+
+		void add(AbstractVariableGenerateHandler handler, String keyword, String prefix,
+				List<ICompletionProposal> proposals) {
+			if (GenerateProposal.matches(keyword, prefix)) {
+				proposals.add(GenerateProposal.completion(handler.getName(), keyword, prefixStart, offset, RELEVANCE,
+						(document, caret) -> replace(handler, document, caret)));
+			}
+		}
+
+		/**
+		 * Replaces the text from the receiver to the caret with the lines emitted by
+		 * the handler, whose first line takes the place of the receiver, and adds the
+		 * imports of the types they refer to.
+		 */
+		private AbstractGenerateHandler.DocumentEdit replace(AbstractVariableGenerateHandler handler,
+				IDocument document, int caret) throws BadLocationException {
+			String indent = HandlerHelper.getIndentAtOffset(document, receiverStart);
+			SnippetWriter out = new SnippetWriter(0, indent, TextUtilities.getDefaultLineDelimiter(document));
+			out.setContinuationIndent(HandlerHelper.getContinuationIndent(ast));
+			TypeNames types = TypeNames.create(ast);
+			String text;
+			try {
+				handler.emit(varName, type, types, LocalNames.of(NodeFinder.perform(ast, receiverStart, 0)), out);
+				if (out.isEmpty()) {
+					return null;
+				}
+				text = out.getText().substring(indent.length());
+			} finally {
+				out.release();
+			}
+			TextEdit imports = types.createImportEdit();
+			return doc -> {
+				// the imports precede the receiver, so replacing it first keeps their offsets valid
+				doc.replace(receiverStart, caret - receiverStart, text);
+				if (imports != null) {
+					imports.apply(doc);
+				}
+			};
+		}
+	}
+}
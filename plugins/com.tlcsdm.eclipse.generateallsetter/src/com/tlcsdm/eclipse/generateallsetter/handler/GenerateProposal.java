@@ -0,0 +1,174 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import org.eclipse.jdt.ui.text.java.IJavaCompletionProposal;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension2;
+import org.eclipse.jface.text.contentassist.IContextInformation;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+
+/**
+ * A quick assist or completion proposal that runs one of the generate commands.
+ * Creating a proposal only costs the lookup that decided it applies; the code
+ * is generated when the proposal is applied, so the proposals the user does not
+ * pick cost nothing.
+ * <p>
+ * A completion proposal has a keyword that is matched against the identifier
+ * typed at {@code prefixOffset}, and is only kept while the typed prefix
+ * matches it.
+ */
+final class GenerateProposal implements IJavaCompletionProposal, ICompletionProposalExtension2 {
+
+	/**
+	 * Generates the edit of a proposal when it is applied.
+	 */
+	@FunctionalInterface
+	interface Generator {
+		/**
+		 * Returns the edit to apply to {@code document}, in which the caret is at
+		 * {@code offset}, or {@code null} if there is nothing to insert.
+		 */
+		AbstractGenerateHandler.DocumentEdit generate(IDocument document, int offset) throws Exception;
+	}
+
+	private final String name;
+	private final String displayString;
+	private final String keyword;
+	private final int prefixOffset;
+	private final int invocationOffset;
+	private final int relevance;
+	private final Generator generator;
+	private Point selection;
+
+	private GenerateProposal(String name, String displayString, String keyword, int prefixOffset,
+			int invocationOffset, int relevance, Generator generator) {
+		this.name = name;
+		this.displayString = displayString;
+		this.keyword = keyword;
+		this.prefixOffset = prefixOffset;
+		this.invocationOffset = invocationOffset;
+		this.relevance = relevance;
+		this.generator = generator;
+	}
+
+	/**
+	 * Creates a quick assist that runs the command of the given name.
+	 */
+	static GenerateProposal assist(String name, int offset, int relevance, Generator generator) {
+		return new GenerateProposal(name, name, null, offset, offset, relevance, generator);
+	}
+
+	/**
+	 * Creates a completion proposal that runs the command of the given name and
+	 * is kept while the identifier typed from {@code prefixOffset} is a prefix of
+	 * {@code keyword}.
+	 */
+	static GenerateProposal completion(String name, String keyword, int prefixOffset, int invocationOffset,
+			int relevance, Generator generator) {
+		return new GenerateProposal(name, keyword + " - " + name, keyword, prefixOffset, invocationOffset,
+				relevance, generator);
+	}
+
+	/**
+	 * Returns whether {@code prefix} may be completed to {@code keyword}.
+	 */
+	static boolean matches(String keyword, String prefix) {
+		return keyword.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+
+	@Override
+	public void apply(IDocument document) {
+		apply(document, invocationOffset);
+	}
+
+	@Override
+	public void apply(ITextViewer viewer, char trigger, int stateMask, int offset) {
+		apply(viewer.getDocument(), offset);
+	}
+
+	private void apply(IDocument document, int offset) {
+		Metrics.Invocation invocation = Metrics.start(name);
+		invocation.attach();
+		try {
+			AbstractGenerateHandler.DocumentEdit edit = generator.generate(document, offset);
+			if (edit == null) {
+				return;
+			}
+			long start = invocation.begin();
+			int length = document.getLength();
+			edit.apply(document);
+			invocation.end(Metrics.Phase.APPLY, start);
+			if (keyword != null) {
+				// the edit replaced the text before the caret, which goes to its end
+				selection = new Point(offset + document.getLength() - length, 0);
+			}
+		} catch (Exception e) {
+			HandlerHelper.logError("Unexpected error running '" + name + "'", e);
+		} finally {
+			invocation.detach();
+			invocation.finish();
+		}
+	}
+
+	@Override
+	public boolean validate(IDocument document, int offset, DocumentEvent event) {
+		if (keyword == null || offset < prefixOffset) {
+			return false;
+		}
+		try {
+			String prefix = document.get(prefixOffset, offset - prefixOffset);
+			for (int i = 0; i < prefix.length(); i++) {
+				if (!Character.isJavaIdentifierPart(prefix.charAt(i))) {
+					return false;
+				}
+			}
+			return matches(keyword, prefix);
+		} catch (BadLocationException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void selected(ITextViewer viewer, boolean smartToggle) {
+	}
+
+	@Override
+	public void unselected(ITextViewer viewer) {
+	}
+
+	@Override
+	public Point getSelection(IDocument document) {
+		return selection;
+	}
+
+	@Override
+	public String getAdditionalProposalInfo() {
+		return null;
+	}
+
+	@Override
+	public String getDisplayString() {
+		return displayString;
+	}
+
+	@Override
+	public Image getImage() {
+		Activator activator = Activator.getDefault();
+		return activator == null ? null : activator.getImageRegistry().get(Activator.IMG_GENERATE);
+	}
+
+	@Override
+	public IContextInformation getContextInformation() {
+		return null;
+	}
+
+	@Override
+	public int getRelevance() {
+		return relevance;
+	}
+}
@@ -0,0 +1,122 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.ui.text.java.IInvocationContext;
+import org.eclipse.jdt.ui.text.java.IJavaCompletionProposal;
+import org.eclipse.jdt.ui.text.java.IProblemLocation;
+import org.eclipse.jdt.ui.text.java.IQuickAssistProcessor;
+
+/**
+ * Offers the generate commands as quick assists (Ctrl+1) on a variable, and the
+ * converter inside a method that returns a bean, a record or a type with a
+ * builder. Whether a command applies is decided from the AST the editor already
+ * has and the kinds of accessors of the variable's type, as reported by the
+ * {@link SignatureIndex}; the code is only generated when a proposal is applied.
+ */
+public class GenerateQuickAssistProcessor implements IQuickAssistProcessor {
+
+	private static final int RELEVANCE = 1;
+
+	private final GenAllGetterHandler getter = new GenAllGetterHandler();
+	private final GenAllSetterWithDefaultHandler setterWithDefault = new GenAllSetterWithDefaultHandler();
+	private final GenAllSetterNoDefaultHandler setterNoDefault = new GenAllSetterNoDefaultHandler();
+	private final GenAllSetterDeepHandler deepSetter = new GenAllSetterDeepHandler();
+	private final GenSettergetterConverterHandler converter = new GenSettergetterConverterHandler();
+
+	@Override
+	public boolean hasAssists(IInvocationContext context) {
+		return !collect(context).isEmpty();
+	}
+
+	@Override
+	public IJavaCompletionProposal[] getAssists(IInvocationContext context, IProblemLocation[] locations) {
+		List<IJavaCompletionProposal> proposals = collect(context);
+		return proposals.isEmpty() ? null : proposals.toArray(new IJavaCompletionProposal[proposals.size()]);
+	}
+
+	private List<IJavaCompletionProposal> collect(IInvocationContext context) {
+		List<IJavaCompletionProposal> proposals = new ArrayList<>();
+		CompilationUnit ast = context.getASTRoot();
+		if (ast == null || context.getSelectionLength() > 0) {
+			return proposals;
+		}
+		int offset = context.getSelectionOffset();
+		try {
+			VariableDeclaration declaration = DeclarationIndex.findVariable(ast, offset);
+			if (declaration != null) {
+				addVariableAssists(ast, declaration, offset, proposals);
+			} else {
+				addConverterAssist(ast, offset, proposals);
+			}
+		} catch (RuntimeException e) {
+			HandlerHelper.logWarning("Failed to compute quick assists", e);
+		}
+		return proposals;
+	}
+
+	private void addVariableAssists(CompilationUnit ast, VariableDeclaration declaration, int offset,
+			List<IJavaCompletionProposal> proposals) {
+		if (declaration.getParent() instanceof FieldDeclaration) {
+			return;
+		}
+		ITypeBinding type = HandlerHelper.resolveType(declaration);
+		if (type == null || type.isPrimitive() || type.isArray()) {
+			return;
+		}
+		Set<AccessorIndex.Kind> kinds = SignatureIndex.getKinds(type);
+		if (hasGetters(kinds)) {
+			proposals.add(assist(getter, ast, offset));
+		}
+		if (kinds.contains(AccessorIndex.Kind.SETTER) || kinds.contains(AccessorIndex.Kind.FLUENT_SETTER)) {
+			proposals.add(assist(setterWithDefault, ast, offset));
+			proposals.add(assist(setterNoDefault, ast, offset));
+		}
+		if (kinds.contains(AccessorIndex.Kind.SETTER)) {
+			proposals.add(assist(deepSetter, ast, offset));
+		}
+	}
+
+	private void addConverterAssist(CompilationUnit ast, int offset, List<IJavaCompletionProposal> proposals) {
+		MethodDeclaration method = DeclarationIndex.findMethod(ast, offset);
+		if (method == null || method.getBody() == null) {
+			return;
+		}
+		IMethodBinding binding = method.resolveBinding();
+		ITypeBinding returnType = binding == null ? null : binding.getReturnType();
+		if (returnType == null || returnType.isPrimitive() || returnType.isArray()) {
+			return;
+		}
+		if (SignatureIndex.getKinds(returnType).contains(AccessorIndex.Kind.SETTER)
+				|| Construction.find(returnType) != null) {
+			proposals.add(GenerateProposal.assist(converter.getName(), offset, RELEVANCE,
+					(document, o) -> converter.generate(ast, offset, null)));
+		}
+	}
+
+	/**
+	 * Returns whether the given accessor kinds include one that reads a property.
+	 */
+	static boolean hasGetters(Set<AccessorIndex.Kind> kinds) {
+		for (AccessorIndex.Kind kind : kinds) {
+			if (kind.isGetter()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static GenerateProposal assist(AbstractVariableGenerateHandler handler, CompilationUnit ast,
+			int offset) {
+		return GenerateProposal.assist(handler.getName(), offset, RELEVANCE,
+				(document, o) -> handler.generate(ast, offset, 0, null));
+	}
+}
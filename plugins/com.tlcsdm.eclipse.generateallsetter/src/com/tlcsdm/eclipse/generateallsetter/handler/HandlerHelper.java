@@ -2,22 +2,42 @@ package com.tlcsdm.eclipse.generateallsetter.handler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentRewriteSession;
+import org.eclipse.jface.text.DocumentRewriteSessionType;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IBlockTextSelection;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IMultiTextSelection;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextSelection;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.TextEdit;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.texteditor.ITextEditor;
@@ -33,10 +53,13 @@ public final class HandlerHelper {
 	}
 
 	/**
-	 * Holds the editor context needed by all handlers.
+	 * Holds the editor context needed by all handlers. {@code offset} and
+	 * {@code length} describe the text selection; the length is zero for a plain
+	 * caret. {@code regions} holds every region of a multi-caret or block
+	 * selection, in document order, and just the selection otherwise.
 	 */
 	public record EditorContext(ITextEditor textEditor, IEditorInput input, ICompilationUnit compilationUnit,
-			IDocument document, int offset) {
+			IDocument document, int offset, int length, IRegion[] regions) {
 	}
 
 	/**
@@ -54,33 +77,69 @@ public final class HandlerHelper {
 		}
 		IDocument doc = textEditor.getDocumentProvider().getDocument(input);
 		ITextSelection selection = (ITextSelection) textEditor.getSelectionProvider().getSelection();
-		int offset = selection.getOffset();
-		return new EditorContext(textEditor, input, icu, doc, offset);
+		IRegion[] regions = null;
+		if (selection instanceof IMultiTextSelection multiSelection) {
+			regions = multiSelection.getRegions();
+		} else if (selection instanceof IBlockTextSelection blockSelection) {
+			regions = blockSelection.getRegions();
+		}
+		if (regions == null || regions.length == 0) {
+			regions = new IRegion[] { new Region(selection.getOffset(), selection.getLength()) };
+		}
+		return new EditorContext(textEditor, input, icu, doc, selection.getOffset(), selection.getLength(), regions);
 	}
 
 	/**
 	 * Creates and configures an AST parser with binding resolution enabled.
 	 */
 	public static CompilationUnit parseCompilationUnit(ICompilationUnit icu) {
+		return parseCompilationUnit(icu, (IProgressMonitor) null);
+	}
+
+	/**
+	 * Parses the compilation unit with binding resolution, reporting progress to
+	 * the given monitor, which may be {@code null}.
+	 */
+	public static CompilationUnit parseCompilationUnit(ICompilationUnit icu, IProgressMonitor monitor) {
+		return (CompilationUnit) newParser(icu).createAST(monitor);
+	}
+
+	/**
+	 * Parses the compilation unit with binding resolution, keeping only the body
+	 * of the member that encloses the given offset. The bodies of all other
+	 * methods are skipped, and statement and binding recovery are enabled so that
+	 * code being edited still yields a usable AST. Progress is reported to the
+	 * given monitor, which may be {@code null}.
+	 */
+	public static CompilationUnit parseCompilationUnit(ICompilationUnit icu, int focalPosition,
+			IProgressMonitor monitor) {
+		ASTParser parser = newParser(icu);
+		parser.setFocalPosition(focalPosition);
+		parser.setStatementsRecovery(true);
+		parser.setBindingsRecovery(true);
+		return (CompilationUnit) parser.createAST(monitor);
+	}
+
+	private static ASTParser newParser(ICompilationUnit icu) {
 		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
 		parser.setSource(icu);
 		parser.setKind(ASTParser.K_COMPILATION_UNIT);
 		parser.setResolveBindings(true);
 		parser.setProject(icu.getJavaProject());
-		return (CompilationUnit) parser.createAST(null);
+		return parser;
 	}
 
 	/**
-	 * Resolves the type binding for a variable declaration fragment. Returns
-	 * {@code null} if the binding cannot be resolved.
+	 * Resolves the type binding for a variable declaration. Returns {@code null} if
+	 * the binding cannot be resolved.
 	 */
-	public static ITypeBinding resolveType(VariableDeclarationFragment fragment) {
-		if (fragment == null) {
+	public static ITypeBinding resolveType(VariableDeclaration declaration) {
+		if (declaration == null) {
 			return null;
 		}
 		try {
-			if (fragment.resolveBinding() != null) {
-				return fragment.resolveBinding().getType();
+			if (declaration.resolveBinding() != null) {
+				return declaration.resolveBinding().getType();
 			}
 		} catch (Exception e) {
 			logWarning("Failed to resolve type binding", e);
@@ -89,54 +148,46 @@ public final class HandlerHelper {
 	}
 
 	/**
-	 * Collects all setter methods from the given type and its superclasses. A
-	 * setter is a method whose name starts with "set", has more than 3 characters,
-	 * and takes exactly one parameter.
+	 * Collects all setter methods from the given type, its superclasses and
+	 * superinterfaces. A setter is a non-static method whose name starts with
+	 * "set", has more than 3 characters, and takes exactly one parameter.
+	 * Overridden setters are only reported once.
+	 *
+	 * @see AccessorIndex
 	 */
 	public static List<IMethodBinding> collectSetters(ITypeBinding type) {
-		List<IMethodBinding> setters = new ArrayList<>();
-		ITypeBinding current = type;
-		while (current != null && !"java.lang.Object".equals(current.getQualifiedName())) {
-			for (IMethodBinding m : current.getDeclaredMethods()) {
-				if (m == null) {
-					continue;
-				}
-				if (m.getParameterTypes() != null && m.getParameterTypes().length == 1) {
-					String name = m.getName();
-					if (name.startsWith("set") && name.length() > 3) {
-						setters.add(m);
-					}
-				}
-			}
-			current = current.getSuperclass();
-		}
-		return setters;
+		return new ArrayList<>(AccessorIndex.build(type).getSetters());
 	}
 
 	/**
-	 * Collects all getter methods from the given type and its superclasses. A
-	 * getter is a no-arg method whose name starts with "get" (length > 3) or "is"
-	 * (length > 2).
+	 * Collects all getter methods from the given type, its superclasses and
+	 * superinterfaces. A getter is a non-static no-arg method whose name starts
+	 * with "get" (length &gt; 3) and returns a value, or whose name starts with
+	 * "is" (length &gt; 2) and returns a boolean. Overridden getters are only
+	 * reported once.
+	 *
+	 * @see AccessorIndex
 	 */
 	public static List<IMethodBinding> collectGetters(ITypeBinding type) {
-		List<IMethodBinding> getters = new ArrayList<>();
-		ITypeBinding current = type;
-		while (current != null && !"java.lang.Object".equals(current.getQualifiedName())) {
-			for (IMethodBinding m : current.getDeclaredMethods()) {
-				if (m == null) {
-					continue;
-				}
-				if (m.getParameterTypes() != null && m.getParameterTypes().length == 0) {
-					String name = m.getName();
-					if ((name.startsWith("get") && name.length() > 3)
-							|| (name.startsWith("is") && name.length() > 2)) {
-						getters.add(m);
-					}
+		return new ArrayList<>(AccessorIndex.build(type).getGetters());
+	}
+
+	/**
+	 * Returns whether the given class can be instantiated with a no-arg
+	 * constructor, i.e. it declares no constructor or a non-private one without
+	 * parameters.
+	 */
+	public static boolean hasAccessibleNoArgConstructor(ITypeBinding type) {
+		boolean hasConstructor = false;
+		for (IMethodBinding m : type.getDeclaredMethods()) {
+			if (m.isConstructor()) {
+				hasConstructor = true;
+				if (m.getParameterTypes().length == 0 && !Modifier.isPrivate(m.getModifiers())) {
+					return true;
 				}
 			}
-			current = current.getSuperclass();
 		}
-		return getters;
+		return !hasConstructor;
 	}
 
 	/**
@@ -160,59 +211,114 @@ public final class HandlerHelper {
 		return indent.toString();
 	}
 
+	/**
+	 * Returns the indentation of a line continuing a statement, such as a call of
+	 * a builder chain, relative to the statement, as configured by the formatter
+	 * settings of the project of the given AST, or of the workspace if the AST
+	 * has no compilation unit.
+	 */
+	public static String getContinuationIndent(CompilationUnit cu) {
+		Map<String, String> options = cu.getJavaElement() instanceof ICompilationUnit icu ? icu.getOptions(true)
+				: JavaCore.getOptions();
+		int units = parseOption(options, DefaultCodeFormatterConstants.FORMATTER_CONTINUATION_INDENTATION, 2);
+		int tabSize = Math.max(1, parseOption(options, DefaultCodeFormatterConstants.FORMATTER_TAB_SIZE, 4));
+		String tabChar = options.get(DefaultCodeFormatterConstants.FORMATTER_TAB_CHAR);
+		if (JavaCore.SPACE.equals(tabChar)) {
+			return " ".repeat(units * tabSize);
+		}
+		if (DefaultCodeFormatterConstants.MIXED.equals(tabChar)) {
+			int width = units * parseOption(options, DefaultCodeFormatterConstants.FORMATTER_INDENTATION_SIZE, 4);
+			return "\t".repeat(width / tabSize) + " ".repeat(width % tabSize);
+		}
+		return "\t".repeat(units);
+	}
+
+	private static int parseOption(Map<String, String> options, String key, int defaultValue) {
+		try {
+			return Math.max(0, Integer.parseInt(options.get(key)));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 	/**
 	 * Inserts the given lines after the current line at the specified offset,
 	 * preserving indentation.
 	 */
 	public static void insertLinesAfterOffset(IDocument doc, int offset, List<String> lines)
 			throws BadLocationException {
-		int line = doc.getLineOfOffset(offset);
+		InsertEdit edit = createInsertLinesEdit(doc, offset, offset, lines);
+		doc.replace(edit.getOffset(), 0, edit.getText());
+	}
+
+	/**
+	 * Creates an edit that inserts the given lines after the line containing
+	 * {@code anchorOffset}, indented like the line containing
+	 * {@code indentOffset}.
+	 */
+	public static InsertEdit createInsertLinesEdit(IDocument doc, int indentOffset, int anchorOffset,
+			List<String> lines) throws BadLocationException {
+		int line = doc.getLineOfOffset(anchorOffset);
 		int lineOffset = doc.getLineOffset(line);
 		int lineLength = doc.getLineLength(line);
 
 		String indent;
 		try {
-			indent = getIndentAtOffset(doc, offset);
+			indent = getIndentAtOffset(doc, indentOffset);
 		} catch (BadLocationException e) {
 			indent = "";
 		}
 
-		StringBuilder indented = new StringBuilder();
-		for (String l : lines) {
-			indented.append(indent).append(l).append(System.lineSeparator());
+		String delimiter = TextUtilities.getDefaultLineDelimiter(doc);
+		SnippetWriter out = new SnippetWriter(lines.size(), indent, delimiter);
+		try {
+			out.append(delimiter);
+			for (String l : lines) {
+				out.line(l);
+			}
+			if (!out.isEmpty()) {
+				out.append(delimiter);
+			}
+			int lineEnd = lineOffset + lineLength;
+			return new InsertEdit(lineEnd, out.getText());
+		} finally {
+			out.release();
 		}
-
-		int lineEnd = lineOffset + lineLength;
-		doc.replace(lineEnd, 0, System.lineSeparator() + indented.toString());
 	}
 
 	/**
-	 * Returns a sensible default value literal for the given type binding.
+	 * Applies the given edit inside a document rewrite session, so that all of its
+	 * changes form a single undoable change and trigger a single reconcile.
 	 */
-	public static String defaultValueFor(ITypeBinding param) {
-		if (param == null) {
-			return "null";
+	public static void applyEdit(IDocument doc, TextEdit edit) throws BadLocationException {
+		DocumentRewriteSession session = null;
+		if (doc instanceof IDocumentExtension4 ext && ext.getActiveRewriteSession() == null) {
+			session = ext.startRewriteSession(DocumentRewriteSessionType.SEQUENTIAL);
 		}
-		if (param.isPrimitive()) {
-			String n = param.getName();
-			switch (n) {
-			case "boolean":
-				return "false";
-			case "char":
-				return "'\\u0000'";
-			case "float":
-				return "0.0f";
-			case "double":
-				return "0.0d";
-			default:
-				return "0";
+		try {
+			edit.apply(doc);
+		} finally {
+			if (session != null) {
+				((IDocumentExtension4) doc).stopRewriteSession(session);
 			}
 		}
-		String q = param.getQualifiedName();
-		if ("java.lang.String".equals(q) || "String".equals(param.getName())) {
-			return "\"\"";
-		}
-		return "null";
+	}
+
+	/**
+	 * Returns a sensible default value literal for the given type binding, as
+	 * supplied by the {@link DefaultValueProviders}, with all types qualified.
+	 */
+	public static String defaultValueFor(ITypeBinding param) {
+		return defaultValueFor(param, TypeNames.QUALIFIED);
+	}
+
+	/**
+	 * Returns a sensible default value literal for the given type binding, as
+	 * supplied by the {@link DefaultValueProviders}, with its types named by
+	 * {@code types}.
+	 */
+	public static String defaultValueFor(ITypeBinding param, TypeNames types) {
+		return DefaultValueProviders.getDefaultValue(param).render(types);
 	}
 
 	/**
@@ -247,54 +353,110 @@ public final class HandlerHelper {
 	}
 
 	/**
-	 * AST visitor that finds a {@link VariableDeclarationFragment} at a given
-	 * offset. Checks both the fragment and the enclosing
-	 * {@link VariableDeclarationStatement}, with a fallback to the first fragment
-	 * when the offset is within the statement but not on a specific fragment name.
+	 * AST visitor that finds the innermost variable declaration at an offset:
+	 * local variables, fields, method, catch and {@code for} parameters, lambda
+	 * parameters and try-with-resources variables. Subtrees whose source range
+	 * does not contain the offset are not visited. With the caret on the type of
+	 * a declaration listing several variables, the first one is found.
 	 */
 	public static class VariableFinder extends ASTVisitor {
 		private final int offset;
-		private VariableDeclarationFragment fragment;
+		private VariableDeclaration declaration;
 
 		public VariableFinder(int offset) {
 			this.offset = offset;
 		}
 
 		@Override
-		public boolean visit(VariableDeclarationFragment node) {
+		public boolean preVisit2(ASTNode node) {
 			int start = node.getStartPosition();
-			int end = start + node.getLength();
-			if (offset >= start && offset <= end) {
-				this.fragment = node;
-			}
+			return offset >= start && offset <= start + node.getLength();
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationStatement node) {
+			selectFragment(node.fragments());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationExpression node) {
+			selectFragment(node.fragments());
+			return true;
+		}
+
+		@Override
+		public boolean visit(FieldDeclaration node) {
+			selectFragment(node.fragments());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			this.declaration = node;
 			return true;
 		}
 
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			this.declaration = node;
+			return true;
+		}
+
+		/**
+		 * Selects the first fragment; the fragment containing the offset, if any, is
+		 * visited next and replaces it.
+		 */
+		private void selectFragment(List<?> fragments) {
+			if (!fragments.isEmpty() && fragments.get(0) instanceof VariableDeclarationFragment f) {
+				this.declaration = f;
+			}
+		}
+
+		/**
+		 * Returns the declaration found, or {@code null}.
+		 */
+		public VariableDeclaration getDeclaration() {
+			return declaration;
+		}
+	}
+
+	/**
+	 * AST visitor that collects the fragments of all local variable declarations
+	 * lying within a source range.
+	 */
+	public static class LocalVariableCollector extends ASTVisitor {
+		private final int start;
+		private final int end;
+		private final List<VariableDeclarationFragment> fragments = new ArrayList<>();
+
+		public LocalVariableCollector(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean preVisit2(ASTNode node) {
+			int nodeStart = node.getStartPosition();
+			return nodeStart <= end && nodeStart + node.getLength() >= start;
+		}
+
 		@Override
 		public boolean visit(VariableDeclarationStatement node) {
-			int start = node.getStartPosition();
-			int end = start + node.getLength();
-			if (offset >= start && offset <= end) {
+			int nodeStart = node.getStartPosition();
+			int nodeEnd = nodeStart + node.getLength();
+			if (nodeStart >= start && nodeEnd <= end) {
 				for (Object o : node.fragments()) {
 					if (o instanceof VariableDeclarationFragment f) {
-						int fs = f.getStartPosition();
-						int fe = fs + f.getLength();
-						if (offset >= fs && offset <= fe) {
-							this.fragment = f;
-							break;
-						}
+						fragments.add(f);
 					}
 				}
-				if (this.fragment == null && !node.fragments().isEmpty()
-						&& node.fragments().get(0) instanceof VariableDeclarationFragment f) {
-					this.fragment = f;
-				}
 			}
 			return true;
 		}
 
-		public VariableDeclarationFragment getFragment() {
-			return fragment;
+		public List<VariableDeclarationFragment> getFragments() {
+			return fragments;
 		}
 	}
 }
@@ -0,0 +1,22 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Provides the default value written for a property by the generate setter
+ * commands. Providers are contributed through the
+ * {@code com.tlcsdm.eclipse.generateallsetter.defaultValueProviders} extension
+ * point and looked up by {@link DefaultValueProviders}.
+ */
+public interface IDefaultValueProvider {
+
+	/**
+	 * Returns the Java expression to use as the value of a property of the given
+	 * type together with the types it refers to, which are imported where the
+	 * value is inserted, or {@code null} to leave the decision to the next
+	 * provider.
+	 *
+	 * @param type the type of the property, possibly parameterized
+	 */
+	DefaultValue getDefaultValue(ITypeBinding type);
+}
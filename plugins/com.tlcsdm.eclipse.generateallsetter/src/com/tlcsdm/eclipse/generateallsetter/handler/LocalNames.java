@@ -0,0 +1,73 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * The names of the variables declared in the body of a member, to which the
+ * names of the local variables declared by generated code are added, so that
+ * these neither clash with an existing variable nor with each other. All
+ * variables of the member are taken into account, not only those in scope at
+ * the insertion point, as a new local variable must not be redeclared by a
+ * later or nested declaration either.
+ */
+public final class LocalNames {
+
+	private final Set<String> names = new HashSet<>();
+
+	private LocalNames() {
+	}
+
+	/**
+	 * Returns the names declared in the member enclosing the given node, or in
+	 * the whole tree if it is not inside a member.
+	 */
+	static LocalNames of(ASTNode node) {
+		LocalNames locals = new LocalNames();
+		enclosingMember(node).accept(new ASTVisitor() {
+			@Override
+			public boolean visit(SingleVariableDeclaration declaration) {
+				locals.names.add(declaration.getName().getIdentifier());
+				return true;
+			}
+
+			@Override
+			public boolean visit(VariableDeclarationFragment fragment) {
+				locals.names.add(fragment.getName().getIdentifier());
+				return true;
+			}
+		});
+		return locals;
+	}
+
+	/**
+	 * Returns the member declaration enclosing the given node, or the root of its
+	 * tree if there is none.
+	 */
+	static ASTNode enclosingMember(ASTNode node) {
+		ASTNode member = node;
+		while (member.getParent() != null && !(member instanceof BodyDeclaration)) {
+			member = member.getParent();
+		}
+		return member;
+	}
+
+	/**
+	 * Returns the name for a new local variable: {@code base} if it is not used
+	 * yet, otherwise {@code base} followed by the smallest unused number from 2.
+	 * The name is taken from then on.
+	 */
+	public String add(String base) {
+		String name = base;
+		for (int i = 2; !names.add(name); i++) {
+			name = base + i;
+		}
+		return name;
+	}
+}
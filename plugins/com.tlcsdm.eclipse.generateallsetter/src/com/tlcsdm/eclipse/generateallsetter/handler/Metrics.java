@@ -0,0 +1,323 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.osgi.service.debug.DebugTrace;
+
+/**
+ * Per-invocation timings and counters of the code generation commands. An
+ * {@link Invocation} is started when a command is executed, travels with the
+ * background job and is finished once its edit was applied. Finished
+ * invocations are kept in a rolling window of {@link #WINDOW} samples per
+ * phase, from which {@link #snapshot()} computes percentiles.
+ * <p>
+ * Collection is enabled while the {@link #TRACE_OPTION} debug option is set or
+ * a collector such as the statistics view is registered. Otherwise
+ * {@link #start(String)} returns a no-op invocation and the instrumented code
+ * only pays for a volatile read.
+ */
+public final class Metrics {
+
+	/** The debug option enabling per-invocation tracing. */
+	public static final String TRACE_OPTION = "/debug/perf"; //$NON-NLS-1$
+
+	/** The number of invocations kept for the percentiles. */
+	public static final int WINDOW = 256;
+
+	/**
+	 * The phases of an invocation. The time of a phase excludes the time of the
+	 * phases nested in it.
+	 */
+	public enum Phase {
+		/** Looking up the editor, compilation unit and selection. */
+		CONTEXT,
+		/** Acquiring the shared AST or parsing the compilation unit. */
+		PARSE,
+		/** Finding the variables or method to generate for. */
+		FIND,
+		/** Walking the type hierarchy for accessor methods. */
+		HIERARCHY,
+		/** Generating the code lines. */
+		EMIT,
+		/** Creating the text edit and applying it to the document. */
+		APPLY
+	}
+
+	/**
+	 * The counters of an invocation.
+	 */
+	public enum Counter {
+		/** Methods inspected while walking type hierarchies. */
+		METHODS_SCANNED,
+		/** Generated code lines. */
+		LINES_EMITTED,
+		/** Generated edits discarded because the document changed meanwhile. */
+		DISCARDED_EDITS
+	}
+
+	/**
+	 * Rolling statistics of one phase or counter, in nanoseconds for phases.
+	 */
+	public record Stat(String name, int count, long p50, long p90, long p99, long max) {
+	}
+
+	/**
+	 * Notified on an arbitrary thread after an invocation was recorded.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		void recorded();
+	}
+
+	private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+	private static final Map<Phase, Window> PHASES = new EnumMap<>(Phase.class);
+	private static final Map<Counter, Window> COUNTERS = new EnumMap<>(Counter.class);
+	private static final CopyOnWriteArrayList<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+	private static volatile DebugTrace trace;
+	private static volatile boolean enabled;
+
+	static {
+		for (Phase phase : Phase.values()) {
+			PHASES.put(phase, new Window());
+		}
+		for (Counter counter : Counter.values()) {
+			COUNTERS.put(counter, new Window());
+		}
+	}
+
+	private Metrics() {
+	}
+
+	/**
+	 * Sets the trace to write finished invocations to, or {@code null} to stop
+	 * tracing.
+	 */
+	public static void setTrace(DebugTrace debugTrace) {
+		trace = debugTrace;
+		updateEnabled();
+	}
+
+	/**
+	 * Registers a listener and enables collection while it is registered.
+	 */
+	public static void addListener(Listener listener) {
+		LISTENERS.addIfAbsent(listener);
+		updateEnabled();
+	}
+
+	public static void removeListener(Listener listener) {
+		LISTENERS.remove(listener);
+		updateEnabled();
+	}
+
+	private static void updateEnabled() {
+		enabled = trace != null || !LISTENERS.isEmpty();
+	}
+
+	/**
+	 * Starts an invocation of the given command, or returns a no-op invocation
+	 * when collection is disabled.
+	 */
+	public static Invocation start(String command) {
+		return enabled ? new Invocation(command) : Invocation.NONE;
+	}
+
+	/**
+	 * Returns the invocation attached to the current thread, or a no-op
+	 * invocation.
+	 */
+	public static Invocation current() {
+		if (!enabled) {
+			return Invocation.NONE;
+		}
+		Invocation invocation = CURRENT.get();
+		return invocation != null ? invocation : Invocation.NONE;
+	}
+
+	/**
+	 * Returns the rolling statistics of all phases followed by all counters.
+	 */
+	public static Stat[] snapshot() {
+		Stat[] stats = new Stat[PHASES.size() + COUNTERS.size()];
+		int i = 0;
+		for (Map.Entry<Phase, Window> e : PHASES.entrySet()) {
+			stats[i++] = e.getValue().stat(e.getKey().name());
+		}
+		for (Map.Entry<Counter, Window> e : COUNTERS.entrySet()) {
+			stats[i++] = e.getValue().stat(e.getKey().name());
+		}
+		return stats;
+	}
+
+	/**
+	 * Discards all recorded samples.
+	 */
+	public static void reset() {
+		PHASES.values().forEach(Window::clear);
+		COUNTERS.values().forEach(Window::clear);
+		LISTENERS.forEach(Listener::recorded);
+	}
+
+	private static void record(Invocation invocation) {
+		for (Phase phase : Phase.values()) {
+			PHASES.get(phase).add(invocation.nanos[phase.ordinal()]);
+		}
+		for (Counter counter : Counter.values()) {
+			COUNTERS.get(counter).add(invocation.counts[counter.ordinal()]);
+		}
+		DebugTrace debugTrace = trace;
+		if (debugTrace != null) {
+			debugTrace.trace(TRACE_OPTION, invocation.toString());
+		}
+		LISTENERS.forEach(Listener::recorded);
+	}
+
+	/**
+	 * The timings and counters of one command invocation. An invocation is handed
+	 * from thread to thread but never used by two threads at once.
+	 */
+	public static class Invocation {
+
+		static final Invocation NONE = new Invocation("") {
+			@Override
+			public long begin() {
+				return 0;
+			}
+
+			@Override
+			public void end(Phase phase, long start) {
+			}
+
+			@Override
+			public void count(Counter counter, long delta) {
+			}
+
+			@Override
+			public void attach() {
+			}
+
+			@Override
+			public void detach() {
+			}
+
+			@Override
+			public void finish() {
+			}
+		};
+
+		private static final int MAX_DEPTH = 8;
+
+		private final String command;
+		private final long[] nanos = new long[Phase.values().length];
+		private final long[] counts = new long[Counter.values().length];
+		private final long[] nested = new long[MAX_DEPTH + 1];
+		private int depth;
+
+		Invocation(String command) {
+			this.command = command;
+		}
+
+		/**
+		 * Starts timing a phase.
+		 *
+		 * @return the token to pass to {@link #end(Phase, long)}
+		 */
+		public long begin() {
+			if (++depth <= MAX_DEPTH) {
+				nested[depth] = 0;
+			}
+			return System.nanoTime();
+		}
+
+		/**
+		 * Ends timing a phase started with {@link #begin()}.
+		 */
+		public void end(Phase phase, long start) {
+			long elapsed = System.nanoTime() - start;
+			nanos[phase.ordinal()] += elapsed - (depth <= MAX_DEPTH ? nested[depth] : 0);
+			if (--depth <= MAX_DEPTH) {
+				nested[depth] += elapsed;
+			}
+		}
+
+		public void count(Counter counter, long delta) {
+			counts[counter.ordinal()] += delta;
+		}
+
+		/**
+		 * Makes this the {@linkplain Metrics#current() current} invocation of the
+		 * calling thread.
+		 */
+		public void attach() {
+			CURRENT.set(this);
+		}
+
+		public void detach() {
+			CURRENT.remove();
+		}
+
+		/**
+		 * Records the invocation in the rolling statistics and writes it to the
+		 * trace.
+		 */
+		public void finish() {
+			record(this);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(command);
+			for (Phase phase : Phase.values()) {
+				sb.append(' ').append(phase.name().toLowerCase(Locale.ROOT)).append('=')
+						.append(nanos[phase.ordinal()] / 1000).append("us");
+			}
+			for (Counter counter : Counter.values()) {
+				sb.append(' ').append(counter.name().toLowerCase(Locale.ROOT)).append('=').append(counts[counter.ordinal()]);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * A ring buffer of the last {@link #WINDOW} samples.
+	 */
+	private static final class Window {
+		private final long[] samples = new long[WINDOW];
+		private int next;
+		private int size;
+
+		synchronized void add(long sample) {
+			samples[next] = sample;
+			next = (next + 1) % WINDOW;
+			size = Math.min(size + 1, WINDOW);
+		}
+
+		synchronized void clear() {
+			next = 0;
+			size = 0;
+		}
+
+		Stat stat(String name) {
+			long[] sorted;
+			synchronized (this) {
+				sorted = Arrays.copyOf(samples, size);
+			}
+			if (sorted.length == 0) {
+				return new Stat(name, 0, 0, 0, 0, 0);
+			}
+			Arrays.sort(sorted);
+			return new Stat(name, sorted.length, percentile(sorted, 50), percentile(sorted, 90),
+					percentile(sorted, 99), sorted[sorted.length - 1]);
+		}
+
+		private static long percentile(long[] sorted, int p) {
+			int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+			return sorted[Math.max(0, index)];
+		}
+	}
+}
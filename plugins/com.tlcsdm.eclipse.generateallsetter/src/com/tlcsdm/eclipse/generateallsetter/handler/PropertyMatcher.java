@@ -0,0 +1,78 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Matches target setters to source getters by property name. The getters of
+ * all sources are put into one hash index keyed by the normalized property
+ * name, so matching a setter is a single lookup. Normalization ignores case and
+ * underscores, so {@code firstName}, {@code first_name} and {@code FIRST_NAME}
+ * match each other.
+ * <p>
+ * A getter only matches if its value can be assigned to the target property,
+ * as decided by {@link ITypeBinding#isAssignmentCompatible(ITypeBinding)}; the
+ * accessors of sources and targets are resolved in the same AST.
+ */
+public final class PropertyMatcher {
+
+	/**
+	 * A source getter matched to a setter.
+	 */
+	public record Match(String sourceVar, AccessorIndex.Accessor getter) {
+
+		/**
+		 * Returns the expression reading the property from the source.
+		 */
+		public String expression() {
+			return sourceVar + "." + getter.method().getName() + "()";
+		}
+	}
+
+	private final Map<String, Match> index = new HashMap<>();
+
+	/**
+	 * Adds the getters of the variable {@code varName} of the given type. Getters
+	 * of sources added earlier take precedence.
+	 */
+	public void addSource(String varName, ITypeBinding type) {
+		if (type == null || type.isPrimitive() || type.isArray()) {
+			return;
+		}
+		for (AccessorIndex.Accessor a : AccessorCache.getIndex(type).getAccessors()) {
+			if (a.kind().isGetter()) {
+				index.putIfAbsent(normalize(a.property()), new Match(varName, a));
+			}
+		}
+	}
+
+	/**
+	 * Returns the source getter whose property matches the given target property,
+	 * a setter or a record component, and whose value can be assigned to it, or
+	 * {@code null} if there is none.
+	 */
+	public Match find(AccessorIndex.Accessor target) {
+		Match match = index.get(normalize(target.property()));
+		if (match == null) {
+			return null;
+		}
+		ITypeBinding value = match.getter().method().getReturnType();
+		return value.isAssignmentCompatible(target.type()) ? match : null;
+	}
+
+	/**
+	 * Normalizes a property name by dropping underscores and lower-casing it.
+	 */
+	public static String normalize(String property) {
+		StringBuilder sb = new StringBuilder(property.length());
+		for (int i = 0; i < property.length(); i++) {
+			char c = property.charAt(i);
+			if (c != '_') {
+				sb.append(Character.toLowerCase(c));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,425 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+
+/**
+ * A persistent index of the accessor signatures declared by the types of a
+ * library, i.e. a jar or a module of the JDK. The index of a library is built
+ * once from the Java model, which reads the class files without resolving any
+ * of the types they refer to, and stored in the plugin state location, keyed by
+ * the path of the library and validated against its size and modification
+ * time. Later sessions read the compact file instead.
+ * <p>
+ * {@link #getKinds(ITypeBinding)} uses the indexes to decide which accessors a
+ * type has, which is what the quick assists and completion proposals need to
+ * know, without asking a library type binding for its declared methods: that
+ * resolves the parameter and return types of all of them through the
+ * classpath. A library that is not indexed yet is indexed by a background job
+ * and its types are classified from their bindings meanwhile.
+ */
+public final class SignatureIndex {
+
+	private static final int VERSION = 2;
+	private static final String DIRECTORY = "signatures";
+	private static final String EXTENSION = ".idx";
+
+	private static final Map<String, SignatureIndex> LOADED = new ConcurrentHashMap<>();
+	private static final Set<String> REQUESTED = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * An accessor declared by a library type.
+	 *
+	 * @param name the name of the accessor method
+	 * @param type the erased signature of the value type, e.g.
+	 *             {@code Ljava.lang.String;}
+	 */
+	public record Entry(AccessorIndex.Kind kind, String property, String name, String type) {
+	}
+
+	private final String key;
+	private final long length;
+	private final long lastModified;
+	private final Map<String, Entry[]> types;
+
+	private SignatureIndex(String key, long length, long lastModified, Map<String, Entry[]> types) {
+		this.key = key;
+		this.length = length;
+		this.lastModified = lastModified;
+		this.types = types;
+	}
+
+	/**
+	 * Returns the accessors declared by the type of the given binary name, e.g.
+	 * {@code p.Outer$Inner}, in the order of the class file. A type of the library
+	 * that declares no accessors has none.
+	 */
+	public List<Entry> getEntries(String typeName) {
+		Entry[] entries = types.get(typeName);
+		return entries == null ? Collections.emptyList() : List.of(entries);
+	}
+
+	/**
+	 * Returns the number of types of the library that declare accessors.
+	 */
+	public int size() {
+		return types.size();
+	}
+
+	/**
+	 * Returns the kinds of the accessors of the given type, its superclasses and
+	 * superinterfaces. Library types are looked up in their index if it is
+	 * available, all other types are classified from their bindings.
+	 */
+	public static Set<AccessorIndex.Kind> getKinds(ITypeBinding type) {
+		Set<AccessorIndex.Kind> kinds = EnumSet.noneOf(AccessorIndex.Kind.class);
+		for (ITypeBinding t : AccessorIndex.hierarchy(type)) {
+			SignatureIndex index = t.isFromSource() ? null : find(t);
+			if (index != null) {
+				Entry[] entries = index.types.get(t.getErasure().getBinaryName());
+				if (entries != null) {
+					for (Entry entry : entries) {
+						kinds.add(entry.kind());
+					}
+				}
+				continue;
+			}
+			for (AccessorIndex.DeclaredAccessor a : AccessorCache.getDeclared(t).accessors) {
+				kinds.add(a.kind());
+			}
+		}
+		return kinds;
+	}
+
+	/**
+	 * Returns the index of the given library, reading it from the state location
+	 * or, if it is missing or stale, building and storing it.
+	 *
+	 * @return the index, or {@code null} if the root is not a library or the
+	 *         plugin is not running
+	 */
+	public static SignatureIndex get(IPackageFragmentRoot root, IProgressMonitor monitor) throws CoreException {
+		if (!root.isArchive() || Activator.getDefault() == null) {
+			return null;
+		}
+		String key = keyOf(root);
+		SignatureIndex index = LOADED.get(key);
+		if (index == null) {
+			File library = libraryFile(root);
+			index = read(key, library);
+			if (index == null) {
+				index = build(root, key, library, monitor);
+				write(index);
+			}
+			LOADED.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Forgets the loaded indexes, e.g. after a library changed. They are read
+	 * again, and rebuilt if stale, on the next lookup.
+	 */
+	public static void clear() {
+		LOADED.clear();
+		REQUESTED.clear();
+	}
+
+	/**
+	 * Returns the loaded or stored index of the library declaring the given type,
+	 * or {@code null} if the type is not from a library or its library is not
+	 * indexed yet, in which case indexing it is scheduled.
+	 */
+	private static SignatureIndex find(ITypeBinding type) {
+		IJavaElement element = type.getErasure().getJavaElement();
+		IJavaElement ancestor = element == null ? null : element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (!(ancestor instanceof IPackageFragmentRoot root) || !root.isArchive() || Activator.getDefault() == null) {
+			return null;
+		}
+		String key = keyOf(root);
+		SignatureIndex index = LOADED.get(key);
+		if (index != null || !REQUESTED.add(key)) {
+			return index;
+		}
+		index = read(key, libraryFile(root));
+		if (index != null) {
+			LOADED.put(key, index);
+			return index;
+		}
+		schedule(root);
+		return null;
+	}
+
+	private static void schedule(IPackageFragmentRoot root) {
+		Job job = new Job("Indexing accessors of " + root.getElementName()) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					get(root, monitor);
+				} catch (OperationCanceledException e) {
+					REQUESTED.remove(keyOf(root));
+					return Status.CANCEL_STATUS;
+				} catch (CoreException | RuntimeException e) {
+					// not retried before the indexes are cleared
+					HandlerHelper.logWarning("Failed to index accessors of " + root.getPath(), e);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	/**
+	 * Returns the key of a library: its path, and the module name for a module of
+	 * a JDK image, which shares the path with the other modules.
+	 */
+	private static String keyOf(IPackageFragmentRoot root) {
+		return root.getPath().toPortableString() + '!' + root.getElementName();
+	}
+
+	private static File libraryFile(IPackageFragmentRoot root) {
+		IResource resource = root.getResource();
+		IPath location = resource != null ? resource.getLocation() : null;
+		return location != null ? location.toFile() : root.getPath().toFile();
+	}
+
+	private static SignatureIndex build(IPackageFragmentRoot root, String key, File library,
+			IProgressMonitor monitor) throws JavaModelException {
+		long length = library.length();
+		long lastModified = library.lastModified();
+		IJavaElement[] children = root.getChildren();
+		SubMonitor subMonitor = SubMonitor.convert(monitor, children.length);
+		Map<String, Entry[]> types = new HashMap<>();
+		for (IJavaElement child : children) {
+			subMonitor.split(1);
+			if (!(child instanceof IPackageFragment pkg)) {
+				continue;
+			}
+			for (IOrdinaryClassFile classFile : pkg.getOrdinaryClassFiles()) {
+				IType type = classFile.getType();
+				if (type.isAnonymous() || type.isLocal()) {
+					continue;
+				}
+				Entry[] entries = declare(type);
+				if (entries.length > 0) {
+					types.put(type.getFullyQualifiedName(), entries);
+				}
+			}
+		}
+		return new SignatureIndex(key, length, lastModified, types);
+	}
+
+	/**
+	 * Classifies the methods declared by a library type like
+	 * {@link AccessorIndex} classifies those of a binding.
+	 */
+	private static Entry[] declare(IType type) throws JavaModelException {
+		List<String> componentNames = new ArrayList<>();
+		if (type.isRecord()) {
+			for (IJavaElement component : type.getRecordComponents()) {
+				componentNames.add(component.getElementName());
+			}
+		}
+		String typeName = type.getFullyQualifiedName('.');
+		IMethod[] methods = type.getMethods();
+		AccessorIndex.SettableProperties settable = settableProperties(type, methods);
+		List<Entry> entries = new ArrayList<>();
+		for (IMethod m : methods) {
+			int flags = m.getFlags();
+			if (m.isConstructor() || Flags.isStatic(flags) || Flags.isSynthetic(flags)) {
+				continue;
+			}
+			Entry entry = classify(m, typeName, componentNames, settable);
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+		return entries.toArray(new Entry[entries.size()]);
+	}
+
+	private static Entry classify(IMethod m, String typeName, List<String> componentNames,
+			AccessorIndex.SettableProperties settable) throws JavaModelException {
+		String name = m.getElementName();
+		String[] params = m.getParameterTypes();
+		String ret = Signature.getTypeErasure(m.getReturnType());
+		if (params.length == 0) {
+			if (Signature.SIG_VOID.equals(ret)) {
+				return null;
+			}
+			if (componentNames.contains(name)) {
+				return new Entry(AccessorIndex.Kind.COMPONENT, name, name, ret);
+			}
+			if (name.startsWith("get") && name.length() > 3) {
+				return new Entry(AccessorIndex.Kind.GETTER, AccessorIndex.propertyName(name.substring(3)), name, ret);
+			}
+			if (name.startsWith("is") && name.length() > 2 && (Signature.SIG_BOOLEAN.equals(ret)
+					|| "java.lang.Boolean".equals(Signature.toString(ret)))) {
+				return new Entry(AccessorIndex.Kind.BOOLEAN_GETTER, AccessorIndex.propertyName(name.substring(2)),
+						name, ret);
+			}
+			return null;
+		}
+		if (params.length != 1) {
+			return null;
+		}
+		String param = Signature.getTypeErasure(params[0]);
+		if (name.startsWith("set") && name.length() > 3) {
+			return new Entry(AccessorIndex.Kind.SETTER, AccessorIndex.propertyName(name.substring(3)), name, param);
+		}
+		if (Signature.getTypeSignatureKind(ret) == Signature.CLASS_TYPE_SIGNATURE
+				&& typeName.equals(Signature.toString(ret).replace('$', '.'))
+				&& !typeName.equals(Signature.toString(param).replace('$', '.'))) {
+			String property = name.startsWith("with") && name.length() > 4
+					? AccessorIndex.propertyName(name.substring(4))
+					: name;
+			return settable.contains(property) ? new Entry(AccessorIndex.Kind.FLUENT_SETTER, property, name, param)
+					: null;
+		}
+		return null;
+	}
+
+	/**
+	 * Collects the properties a fluent setter of a library type can set, like
+	 * {@link AccessorIndex.SettableProperties#of} does for a binding.
+	 */
+	private static AccessorIndex.SettableProperties settableProperties(IType type, IMethod[] methods)
+			throws JavaModelException {
+		boolean hasFields = false;
+		Set<String> fields = new HashSet<>();
+		for (IField field : type.getFields()) {
+			int flags = field.getFlags();
+			if (!Flags.isStatic(flags)) {
+				hasFields = true;
+				if (!Flags.isFinal(flags)) {
+					fields.add(field.getElementName());
+				}
+			}
+		}
+		Set<String> readers = new HashSet<>();
+		if (!hasFields) {
+			for (IMethod m : methods) {
+				if (m.getNumberOfParameters() == 0 && !Flags.isStatic(m.getFlags())) {
+					readers.add(m.getElementName());
+				}
+			}
+		}
+		return new AccessorIndex.SettableProperties(hasFields, fields, readers);
+	}
+
+	private static Path fileOf(String key) {
+		IPath state = Activator.getDefault().getStateLocation().append(DIRECTORY);
+		return state.append(String.format("%08x", key.hashCode()) + EXTENSION).toPath();
+	}
+
+	/**
+	 * Reads the stored index of a library, or returns {@code null} if there is
+	 * none or the library changed since it was built.
+	 */
+	private static SignatureIndex read(String key, File library) {
+		Path file = fileOf(key);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != VERSION || !key.equals(in.readUTF()) || in.readLong() != library.length()
+					|| in.readLong() != library.lastModified()) {
+				return null;
+			}
+			AccessorIndex.Kind[] kinds = AccessorIndex.Kind.values();
+			int typeCount = in.readInt();
+			Map<String, Entry[]> types = new HashMap<>(typeCount * 4 / 3 + 1);
+			for (int i = 0; i < typeCount; i++) {
+				String typeName = in.readUTF();
+				Entry[] entries = new Entry[in.readInt()];
+				for (int j = 0; j < entries.length; j++) {
+					entries[j] = new Entry(kinds[in.readByte()], in.readUTF(), in.readUTF(), in.readUTF());
+				}
+				types.put(typeName, entries);
+			}
+			return new SignatureIndex(key, library.length(), library.lastModified(), types);
+		} catch (IOException | RuntimeException e) {
+			HandlerHelper.logWarning("Ignored unreadable accessor index " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores an index, replacing the previous one of its library at once.
+	 */
+	private static void write(SignatureIndex index) {
+		Path file = fileOf(index.key);
+		Path tmp = null;
+		try {
+			Files.createDirectories(file.getParent());
+			tmp = Files.createTempFile(file.getParent(), null, null);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				out.writeInt(VERSION);
+				out.writeUTF(index.key);
+				out.writeLong(index.length);
+				out.writeLong(index.lastModified);
+				out.writeInt(index.types.size());
+				for (Map.Entry<String, Entry[]> type : index.types.entrySet()) {
+					out.writeUTF(type.getKey());
+					out.writeInt(type.getValue().length);
+					for (Entry entry : type.getValue()) {
+						out.writeByte(entry.kind().ordinal());
+						out.writeUTF(entry.property());
+						out.writeUTF(entry.name());
+						out.writeUTF(entry.type());
+					}
+				}
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			HandlerHelper.logWarning("Failed to store accessor index " + file, e);
+			try {
+				if (tmp != null) {
+					Files.deleteIfExists(tmp);
+				}
+			} catch (IOException ignored) {
+				// the state location is cleaned up by the next successful write at the latest
+			}
+		}
+	}
+}
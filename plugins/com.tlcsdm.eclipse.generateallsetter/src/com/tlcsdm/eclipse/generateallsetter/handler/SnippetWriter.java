@@ -0,0 +1,143 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+/**
+ * Writes generated code lines into a single buffer, applying the indentation
+ * and line delimiter while writing. The buffer is taken from a per-thread pool
+ * and presized for the expected number of lines, so emitting a snippet does not
+ * create intermediate strings; {@link #release()} returns it to the pool.
+ * <p>
+ * Lines are separated, not terminated, by the delimiter. Snippets that are
+ * inserted through an {@link org.eclipse.jdt.core.dom.rewrite.ASTRewrite} use
+ * the default {@code ""} indentation and {@code "\n"} delimiter, since the
+ * rewrite indents them and converts the delimiters.
+ */
+public final class SnippetWriter {
+
+	private static final int CHARS_PER_LINE = 48;
+	private static final int MAX_POOLED_CAPACITY = 1 << 20;
+	private static final ThreadLocal<StringBuilder> POOL = new ThreadLocal<>();
+
+	private final StringBuilder buffer;
+	private final String indent;
+	private final String delimiter;
+	private String continuationIndent = "\t\t"; //$NON-NLS-1$
+	private int lines;
+
+	/**
+	 * Creates a writer without indentation that separates lines with
+	 * {@code "\n"}.
+	 */
+	public SnippetWriter(int expectedLines) {
+		this(expectedLines, "", "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public SnippetWriter(int expectedLines, String indent, String delimiter) {
+		this.indent = indent;
+		this.delimiter = delimiter;
+		StringBuilder pooled = POOL.get();
+		if (pooled != null) {
+			POOL.remove();
+			pooled.setLength(0);
+			buffer = pooled;
+		} else {
+			buffer = new StringBuilder();
+		}
+		expectLines(expectedLines);
+	}
+
+	/**
+	 * Grows the buffer to hold the given number of additional lines of typical
+	 * length.
+	 */
+	public void expectLines(int count) {
+		buffer.ensureCapacity(buffer.length() + count * (CHARS_PER_LINE + indent.length() + delimiter.length()));
+	}
+
+	/**
+	 * Starts a new line.
+	 */
+	public SnippetWriter newLine() {
+		if (lines++ > 0) {
+			buffer.append(delimiter);
+		}
+		buffer.append(indent);
+		return this;
+	}
+
+	/**
+	 * Sets the indentation of {@linkplain #continueLine() continuation lines},
+	 * which is two tabs by default.
+	 */
+	public void setContinuationIndent(String continuationIndent) {
+		this.continuationIndent = continuationIndent;
+	}
+
+	/**
+	 * Starts a new line that continues the statement of the previous one,
+	 * indented by the continuation indentation.
+	 */
+	public SnippetWriter continueLine() {
+		return newLine().append(continuationIndent);
+	}
+
+	/**
+	 * Writes a complete line.
+	 */
+	public SnippetWriter line(String text) {
+		return newLine().append(text);
+	}
+
+	/**
+	 * Appends to the current line.
+	 */
+	public SnippetWriter append(String text) {
+		buffer.append(text);
+		return this;
+	}
+
+	public SnippetWriter append(CharSequence text, int start, int end) {
+		buffer.append(text, start, end);
+		return this;
+	}
+
+	public SnippetWriter append(char c) {
+		buffer.append(c);
+		return this;
+	}
+
+	/**
+	 * Returns the number of lines written since the last {@link #reset()}.
+	 */
+	public int getLineCount() {
+		return lines;
+	}
+
+	public boolean isEmpty() {
+		return lines == 0;
+	}
+
+	/**
+	 * Returns the written lines.
+	 */
+	public String getText() {
+		return buffer.toString();
+	}
+
+	/**
+	 * Discards the written lines, keeping the buffer.
+	 */
+	public void reset() {
+		buffer.setLength(0);
+		lines = 0;
+	}
+
+	/**
+	 * Returns the buffer to the pool of the calling thread. The writer must not be
+	 * used afterwards.
+	 */
+	public void release() {
+		if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+			POOL.set(buffer);
+		}
+	}
+}
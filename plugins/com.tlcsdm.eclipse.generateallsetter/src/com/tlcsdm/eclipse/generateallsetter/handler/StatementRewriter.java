@@ -0,0 +1,127 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.ChildListPropertyDescriptor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+import org.eclipse.jdt.core.dom.rewrite.ASTRewrite;
+import org.eclipse.jdt.core.dom.rewrite.ListRewrite;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Records generated statements as {@link ListRewrite} insertions on an
+ * {@link ASTRewrite} and turns them into a single {@link TextEdit}. The edit
+ * only touches the inserted regions, uses the document's line delimiter and
+ * indents the statements according to the project's formatter settings. The
+ * AST itself is never modified, so shared ASTs can be used.
+ * <p>
+ * All statements generated for one anchor are inserted as a single multi-line
+ * placeholder; the rewrite cost grows with the number of inserted nodes, so
+ * this is far cheaper than one placeholder per statement.
+ * <p>
+ * The imports of the types named through {@link #getTypeNames()} are added by
+ * the same edit. The local variables declared by the inserted statements are
+ * named through {@link #getLocalNames(ASTNode)}, so that statements inserted
+ * into the same member do not declare a name twice.
+ */
+public final class StatementRewriter {
+
+	private final ASTRewrite rewrite;
+	private final ICompilationUnit icu;
+	private final TypeNames types;
+	private final Map<ASTNode, ASTNode> lastInserted = new IdentityHashMap<>();
+	private final Map<ASTNode, LocalNames> localNames = new IdentityHashMap<>();
+	private boolean empty = true;
+
+	public StatementRewriter(CompilationUnit cu) {
+		this.rewrite = ASTRewrite.create(cu.getAST());
+		this.icu = (ICompilationUnit) cu.getJavaElement();
+		this.types = TypeNames.create(cu);
+	}
+
+	/**
+	 * Returns the names to refer to types by in the inserted statements.
+	 */
+	public TypeNames getTypeNames() {
+		return types;
+	}
+
+	/**
+	 * Returns the names of the variables of the member enclosing {@code node},
+	 * shared by all statements inserted into that member.
+	 */
+	public LocalNames getLocalNames(ASTNode node) {
+		return localNames.computeIfAbsent(LocalNames.enclosingMember(node), LocalNames::of);
+	}
+
+	/**
+	 * Returns whether the given statement is an element of a statement list, i.e.
+	 * whether statements can be inserted after it.
+	 */
+	public static boolean isListElement(Statement statement) {
+		return statement != null && statement.getLocationInParent() instanceof ChildListPropertyDescriptor;
+	}
+
+	/**
+	 * Inserts the lines written to {@code snippet} after {@code anchor}, which
+	 * must satisfy {@link #isListElement(Statement)}. Lines inserted after the same
+	 * anchor by later calls follow those of earlier calls.
+	 */
+	public void insertAfter(Statement anchor, SnippetWriter snippet) {
+		if (snippet.isEmpty()) {
+			return;
+		}
+		StructuralPropertyDescriptor location = anchor.getLocationInParent();
+		ListRewrite listRewrite = rewrite.getListRewrite(anchor.getParent(), (ChildListPropertyDescriptor) location);
+		ASTNode placeholder = createPlaceholder(snippet);
+		listRewrite.insertAfter(placeholder, lastInserted.getOrDefault(anchor, anchor), null);
+		lastInserted.put(anchor, placeholder);
+	}
+
+	/**
+	 * Inserts the lines written to {@code snippet} at the start of the block.
+	 */
+	public void insertFirst(Block block, SnippetWriter snippet) {
+		if (snippet.isEmpty()) {
+			return;
+		}
+		rewrite.getListRewrite(block, Block.STATEMENTS_PROPERTY).insertFirst(createPlaceholder(snippet), null);
+	}
+
+	private ASTNode createPlaceholder(SnippetWriter snippet) {
+		empty = false;
+		return rewrite.createStringPlaceholder(snippet.getText(), ASTNode.EXPRESSION_STATEMENT);
+	}
+
+	/**
+	 * Returns whether no statement has been recorded.
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Converts the recorded insertions into an edit for the given document, which
+	 * must match the source the AST was created from.
+	 */
+	public TextEdit createEdit(IDocument doc) {
+		Map<String, String> options = icu != null ? icu.getOptions(true) : null;
+		TextEdit edit = rewrite.rewriteAST(doc, options);
+		TextEdit imports = types.createImportEdit();
+		if (imports == null) {
+			return edit;
+		}
+		MultiTextEdit result = new MultiTextEdit();
+		result.addChild(imports);
+		result.addChild(edit);
+		return result;
+	}
+}
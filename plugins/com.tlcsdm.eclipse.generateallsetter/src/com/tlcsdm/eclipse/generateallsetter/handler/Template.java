@@ -0,0 +1,235 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * A compiled template for one generated line, such as
+ * {@code ${var}.${setter}(${default});}. The template text is parsed once into
+ * a sequence of literal and variable segments; rendering a property only walks
+ * that sequence and appends to a {@link SnippetWriter}.
+ * <p>
+ * The supported variables are:
+ * <ul>
+ * <li>{@code ${var}} - the variable the code is generated for</li>
+ * <li>{@code ${property}} - the property name</li>
+ * <li>{@code ${local}} - the property name as the name of a local variable,
+ * numbered if a variable of that name already exists where the line is
+ * inserted</li>
+ * <li>{@code ${Property}} - the property name, capitalized</li>
+ * <li>{@code ${setter}} - the name of the setter method</li>
+ * <li>{@code ${getter}} - the name of the getter method</li>
+ * <li>{@code ${type}} - the name of the property type, imported if possible</li>
+ * <li>{@code ${default}} - the value passed to the setter, by default a
+ * sensible default value for the property type</li>
+ * <li>{@code ${source}} - the source variable of a converter</li>
+ * </ul>
+ * {@code $$} writes a single {@code $}.
+ */
+public final class Template {
+
+	/**
+	 * The variables of a template.
+	 */
+	public enum Variable {
+		VAR("var"), PROPERTY("property"), LOCAL("local"), CAPITALIZED_PROPERTY("Property"), SETTER("setter"),
+		GETTER("getter"), TYPE("type"), DEFAULT("default"), SOURCE("source");
+
+		private final String token;
+
+		Variable(String token) {
+			this.token = token;
+		}
+
+		public String getToken() {
+			return token;
+		}
+
+		static Variable of(String token) {
+			for (Variable v : values()) {
+				if (v.token.equals(token)) {
+					return v;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * The values of the variables for one rendered line. A context is reused for
+	 * all properties of an invocation; unset values render as empty text.
+	 */
+	public static final class Context {
+		private String var;
+		private String property;
+		private IMethodBinding setter;
+		private IMethodBinding getter;
+		private ITypeBinding type;
+		private String value;
+		private String source;
+		private TypeNames types = TypeNames.QUALIFIED;
+		private LocalNames locals;
+
+		/**
+		 * Sets how the types referenced by {@code ${type}} and {@code ${default}} are
+		 * named; by default they are qualified.
+		 */
+		public Context types(TypeNames types) {
+			this.types = types;
+			return this;
+		}
+
+		/**
+		 * Sets the names {@code ${local}} must not clash with; without them it is
+		 * the plain property name.
+		 */
+		public Context locals(LocalNames locals) {
+			this.locals = locals;
+			return this;
+		}
+
+		public Context var(String var) {
+			this.var = var;
+			return this;
+		}
+
+		public Context source(String source) {
+			this.source = source;
+			return this;
+		}
+
+		/**
+		 * Sets the property and its accessors; {@code value} overrides the default
+		 * value of {@code type} if not {@code null}.
+		 */
+		public Context property(String property, IMethodBinding setter, IMethodBinding getter, ITypeBinding type,
+				String value) {
+			this.property = property;
+			this.setter = setter;
+			this.getter = getter;
+			this.type = type;
+			this.value = value;
+			return this;
+		}
+	}
+
+	/** A segment is either a literal {@link String} or a {@link Variable}. */
+	private final Object[] segments;
+	private final String text;
+
+	private Template(String text, Object[] segments) {
+		this.text = text;
+		this.segments = segments;
+	}
+
+	/**
+	 * Compiles the given template text.
+	 *
+	 * @throws IllegalArgumentException if the text references an unknown variable
+	 *                                  or contains an unterminated reference
+	 */
+	public static Template compile(String text) {
+		List<Object> segments = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int i = 0;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c != '$' || i + 1 >= text.length()) {
+				literal.append(c);
+				i++;
+			} else if (text.charAt(i + 1) == '$') {
+				literal.append('$');
+				i += 2;
+			} else if (text.charAt(i + 1) == '{') {
+				int end = text.indexOf('}', i + 2);
+				if (end < 0) {
+					throw new IllegalArgumentException("Unterminated variable at position " + i);
+				}
+				String token = text.substring(i + 2, end);
+				Variable variable = Variable.of(token);
+				if (variable == null) {
+					throw new IllegalArgumentException("Unknown variable ${" + token + "}");
+				}
+				if (literal.length() > 0) {
+					segments.add(literal.toString());
+					literal.setLength(0);
+				}
+				segments.add(variable);
+				i = end + 1;
+			} else {
+				literal.append(c);
+				i++;
+			}
+		}
+		if (literal.length() > 0) {
+			segments.add(literal.toString());
+		}
+		return new Template(text, segments.toArray());
+	}
+
+	/**
+	 * Returns whether the template references the given variable.
+	 */
+	public boolean uses(Variable variable) {
+		for (Object segment : segments) {
+			if (segment == variable) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes one line rendered with the given context.
+	 */
+	public void render(SnippetWriter out, Context ctx) {
+		out.newLine();
+		String local = null;
+		for (Object segment : segments) {
+			if (segment instanceof String literal) {
+				out.append(literal);
+				continue;
+			}
+			switch ((Variable) segment) {
+			case VAR -> append(out, ctx.var);
+			case PROPERTY -> append(out, ctx.property);
+			case LOCAL -> {
+				// one name per line, however often the line refers to it
+				if (local == null) {
+					local = ctx.locals == null || ctx.property == null ? ctx.property : ctx.locals.add(ctx.property);
+				}
+				append(out, local);
+			}
+			case CAPITALIZED_PROPERTY -> {
+				if (ctx.property != null && !ctx.property.isEmpty()) {
+					out.append(Character.toUpperCase(ctx.property.charAt(0))).append(ctx.property, 1,
+							ctx.property.length());
+				}
+			}
+			case SETTER -> append(out, ctx.setter == null ? null : ctx.setter.getName());
+			case GETTER -> append(out, ctx.getter == null ? null : ctx.getter.getName());
+			case TYPE -> append(out, ctx.type == null ? null : ctx.types.name(ctx.type));
+			case DEFAULT -> append(out,
+					ctx.value != null ? ctx.value : HandlerHelper.defaultValueFor(ctx.type, ctx.types));
+			case SOURCE -> append(out, ctx.source);
+			}
+		}
+	}
+
+	private static void append(SnippetWriter out, String value) {
+		if (value != null) {
+			out.append(value);
+		}
+	}
+
+	/**
+	 * Returns the template text.
+	 */
+	@Override
+	public String toString() {
+		return text;
+	}
+}
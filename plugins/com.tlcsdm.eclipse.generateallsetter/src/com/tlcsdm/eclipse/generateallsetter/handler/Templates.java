@@ -0,0 +1,61 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+import com.tlcsdm.eclipse.generateallsetter.preferences.PreferenceConstants;
+
+/**
+ * Provides the compiled line templates configured in the preferences. Each
+ * distinct template text is compiled once and cached, so a command only looks
+ * up the preference and the cache.
+ */
+public final class Templates {
+
+	private static final Map<String, Template> CACHE = new ConcurrentHashMap<>();
+
+	private Templates() {
+	}
+
+	public static Template getter() {
+		return get(PreferenceConstants.GETTER_TEMPLATE, PreferenceConstants.DEFAULT_GETTER_TEMPLATE);
+	}
+
+	public static Template setter() {
+		return get(PreferenceConstants.SETTER_TEMPLATE, PreferenceConstants.DEFAULT_SETTER_TEMPLATE);
+	}
+
+	public static Template setterWithDefault() {
+		return get(PreferenceConstants.SETTER_WITH_DEFAULT_TEMPLATE,
+				PreferenceConstants.DEFAULT_SETTER_WITH_DEFAULT_TEMPLATE);
+	}
+
+	public static Template converter() {
+		return get(PreferenceConstants.CONVERTER_TEMPLATE, PreferenceConstants.DEFAULT_CONVERTER_TEMPLATE);
+	}
+
+	/**
+	 * Returns the compiled template of the given preference, falling back to the
+	 * default text if the preference is empty or does not compile.
+	 */
+	private static Template get(String key, String defaultText) {
+		Activator activator = Activator.getDefault();
+		String text = activator != null ? activator.getPreferenceStore().getString(key) : defaultText;
+		if (text == null || text.isBlank()) {
+			text = defaultText;
+		}
+		Template template = CACHE.get(text);
+		if (template != null) {
+			return template;
+		}
+		try {
+			template = Template.compile(text);
+		} catch (IllegalArgumentException e) {
+			HandlerHelper.logWarning("Invalid template '" + text + "', using the default", e);
+			template = Template.compile(defaultText);
+		}
+		CACHE.put(text, template);
+		return template;
+	}
+}
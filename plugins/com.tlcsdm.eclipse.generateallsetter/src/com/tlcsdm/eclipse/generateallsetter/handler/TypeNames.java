@@ -0,0 +1,178 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
+import org.eclipse.jdt.core.dom.rewrite.ImportRewrite.ImportRewriteContext;
+import org.eclipse.jdt.ui.CodeStyleConfiguration;
+import org.eclipse.text.edits.TextEdit;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+
+/**
+ * Names the types referenced by code generated into a compilation unit. The
+ * types are imported through an {@link ImportRewrite}, configured with the
+ * project's import order, whose edit is applied together with the generated
+ * code, and then referred to by their simple names. A type whose simple name is
+ * already taken by another import or by a type declared in the compilation unit
+ * is referred to by its qualified name. An AST that was not created from a
+ * compilation unit cannot have imports added, so all types are qualified,
+ * except for the implicitly imported top-level types of {@code java.lang}.
+ */
+public final class TypeNames {
+
+	/** Names all types by their qualified names. */
+	public static final TypeNames QUALIFIED = new TypeNames(null, null);
+
+	private static final String JAVA_LANG = "java.lang.";
+
+	private final ImportRewrite imports;
+	private final ImportRewriteContext context;
+
+	private TypeNames(ImportRewrite imports, ImportRewriteContext context) {
+		this.imports = imports;
+		this.context = context;
+	}
+
+	/**
+	 * Returns the names for code generated into the given AST, which may be
+	 * shared, as it is not modified.
+	 */
+	public static TypeNames create(CompilationUnit cu) {
+		if (!(cu.getJavaElement() instanceof ICompilationUnit)) {
+			return QUALIFIED;
+		}
+		ImportRewrite imports = Activator.getDefault() != null ? CodeStyleConfiguration.createImportRewrite(cu, true)
+				: ImportRewrite.create(cu, true);
+		return new TypeNames(imports, new DeclaredTypesContext(cu, imports));
+	}
+
+	/**
+	 * Returns the names for code generated into a new compilation unit, whose
+	 * imports are recorded on the given rewrite.
+	 */
+	static TypeNames create(ImportRewrite imports) {
+		return new TypeNames(imports, imports.getDefaultImportRewriteContext());
+	}
+
+	/**
+	 * Returns the name to refer to the type with the given qualified name by,
+	 * importing it if possible.
+	 */
+	public String name(String qualifiedName) {
+		if (imports != null) {
+			return imports.addImport(qualifiedName, context);
+		}
+		if (qualifiedName.startsWith(JAVA_LANG) && qualifiedName.indexOf('.', JAVA_LANG.length()) < 0) {
+			return qualifiedName.substring(JAVA_LANG.length());
+		}
+		return qualifiedName;
+	}
+
+	/**
+	 * Returns the name to refer to the given type by, including its type
+	 * arguments, importing the types it consists of if possible.
+	 */
+	public String name(ITypeBinding type) {
+		if (imports != null) {
+			return imports.addImport(type, context);
+		}
+		if (type.isArray()) {
+			return name(type.getElementType()) + "[]".repeat(type.getDimensions());
+		}
+		if (type.isParameterizedType()) {
+			StringBuilder sb = new StringBuilder(name(type.getErasure())).append('<');
+			ITypeBinding[] arguments = type.getTypeArguments();
+			for (int i = 0; i < arguments.length; i++) {
+				sb.append(i > 0 ? ", " : "").append(name(arguments[i]));
+			}
+			return sb.append('>').toString();
+		}
+		if (type.isCapture()) {
+			return name(type.getWildcard());
+		}
+		if (type.isWildcardType()) {
+			ITypeBinding bound = type.getBound();
+			return bound == null ? "?" : "? " + (type.isUpperbound() ? "extends " : "super ") + name(bound);
+		}
+		String qualifiedName = type.getQualifiedName();
+		// primitive types and type variables have no qualifier, local and anonymous types no qualified name
+		return type.isPrimitive() || type.isTypeVariable() || qualifiedName.isEmpty() ? type.getName()
+				: name(qualifiedName);
+	}
+
+	/**
+	 * Returns the edit adding the imports of all named types, or {@code null} if
+	 * none are missing.
+	 */
+	TextEdit createImportEdit() {
+		if (imports == null || !imports.hasRecordedChanges()) {
+			return null;
+		}
+		try {
+			return imports.rewriteImports(null);
+		} catch (CoreException e) {
+			HandlerHelper.logError("Cannot add the imports of the generated code", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Resolves names against the types declared in the compilation unit as well
+	 * as against its imports: a type declared there hides an imported type of the
+	 * same simple name, and a top-level type declared there needs no import.
+	 */
+	private static final class DeclaredTypesContext extends ImportRewriteContext {
+		private final ImportRewriteContext imports;
+		private final Map<String, String> declared = new HashMap<>();
+		private final Map<String, String> topLevel = new HashMap<>();
+
+		DeclaredTypesContext(CompilationUnit cu, ImportRewrite rewrite) {
+			this.imports = rewrite.getDefaultImportRewriteContext();
+			String packageName = cu.getPackage() != null ? cu.getPackage().getName().getFullyQualifiedName() : "";
+			for (Object type : cu.types()) {
+				AbstractTypeDeclaration declaration = (AbstractTypeDeclaration) type;
+				String name = declaration.getName().getIdentifier();
+				topLevel.put(name, packageName.isEmpty() ? name : packageName + '.' + name);
+			}
+			collect(cu.types(), packageName);
+		}
+
+		/**
+		 * Collects the types among the given declarations and their member types.
+		 */
+		private void collect(List<?> declarations, String qualifier) {
+			for (Object o : declarations) {
+				if (o instanceof AbstractTypeDeclaration declaration) {
+					String name = declaration.getName().getIdentifier();
+					String qualifiedName = qualifier.isEmpty() ? name : qualifier + '.' + name;
+					// two declared types of the same simple name make it ambiguous
+					declared.merge(name, qualifiedName, (a, b) -> "");
+					collect(declaration.bodyDeclarations(), qualifiedName);
+				}
+			}
+		}
+
+		@Override
+		public int findInContext(String qualifier, String name, int kind) {
+			if (kind == KIND_TYPE) {
+				String qualifiedName = qualifier.isEmpty() ? name : qualifier + '.' + name;
+				if (qualifiedName.equals(topLevel.get(name))) {
+					return RES_NAME_FOUND;
+				}
+				String declaredName = declared.get(name);
+				if (declaredName != null && !declaredName.equals(qualifiedName)) {
+					return RES_NAME_CONFLICT;
+				}
+			}
+			return imports.findInContext(qualifier, name, kind);
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package com.tlcsdm.eclipse.generateallsetter.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
+import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+import com.tlcsdm.eclipse.generateallsetter.preferences.PreferenceConstants;
+
+/**
+ * Precomputes, in the background, the accessor metadata the commands need for
+ * the types of the variables and the return types of the methods of the active
+ * Java editor, so that the first command on a freshly opened editor does not
+ * pay for the hierarchy walk, the default value providers and the templates.
+ * <p>
+ * The service is opt-in through {@link PreferenceConstants#WARM_UP}. It is
+ * started with the bundle, which is activated lazily by the first command,
+ * proposal or visit of the preference page rather than at workbench startup,
+ * so a disabled service costs nothing. Once enabled, it runs a system
+ * {@link Job} of the lowest priority when a Java editor is activated or its
+ * compilation unit is reconciled. The job reuses the shared AST of the editor, is postponed while
+ * the workspace is building, warms at most {@value #MAX_TYPES} types per run,
+ * so that their hierarchies fit into the {@link AccessorCache} alongside those
+ * of the types already cached, and stops when the heap is nearly full.
+ */
+public final class WarmUpService {
+
+	/** The maximum number of types warmed per run. */
+	public static final int MAX_TYPES = AccessorCache.MAX_DECLARED / 8;
+
+	/** The fraction of the maximum heap above which no more types are warmed. */
+	private static final double MAX_HEAP_USAGE = 0.8;
+
+	private static final long DELAY = 500;
+	private static final long BUILD_DELAY = 5000;
+
+	private static volatile WarmUpService instance;
+
+	private final WarmUpJob job = new WarmUpJob();
+	private final IPropertyChangeListener preferenceListener = this::preferenceChanged;
+	private final IElementChangedListener reconcileListener = this::reconciled;
+	private final PartListener partListener = new PartListener();
+	private volatile ICompilationUnit active;
+	private boolean installed;
+
+	private WarmUpService() {
+	}
+
+	/**
+	 * Starts the service, which installs its listeners if and as soon as
+	 * {@link PreferenceConstants#WARM_UP} is set. Called when the bundle is
+	 * activated.
+	 */
+	public static void start() {
+		Activator activator = Activator.getDefault();
+		if (activator == null || !PlatformUI.isWorkbenchRunning()) {
+			return;
+		}
+		WarmUpService service = new WarmUpService();
+		instance = service;
+		activator.getPreferenceStore().addPropertyChangeListener(service.preferenceListener);
+		service.update(activator.getPreferenceStore().getBoolean(PreferenceConstants.WARM_UP));
+	}
+
+	/**
+	 * Stops the service, if it was started.
+	 */
+	public static void shutdown() {
+		WarmUpService service = instance;
+		instance = null;
+		if (service == null) {
+			return;
+		}
+		Activator activator = Activator.getDefault();
+		if (activator != null) {
+			activator.getPreferenceStore().removePropertyChangeListener(service.preferenceListener);
+		}
+		if (PlatformUI.isWorkbenchRunning()) {
+			IWorkbench workbench = PlatformUI.getWorkbench();
+			Display display = workbench.getDisplay();
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> service.uninstall(workbench));
+				return;
+			}
+		}
+		// the workbench and its windows are gone with their listeners
+		JavaCore.removeElementChangedListener(service.reconcileListener);
+		service.active = null;
+		service.job.cancel();
+	}
+
+	private void preferenceChanged(PropertyChangeEvent event) {
+		if (PreferenceConstants.WARM_UP.equals(event.getProperty())) {
+			Activator activator = Activator.getDefault();
+			update(activator != null && activator.getPreferenceStore().getBoolean(PreferenceConstants.WARM_UP));
+		}
+	}
+
+	/**
+	 * Installs or removes the listeners, on the display thread.
+	 */
+	private void update(boolean enabled) {
+		IWorkbench workbench = PlatformUI.getWorkbench();
+		workbench.getDisplay().asyncExec(() -> {
+			// an update queued before a shutdown must not install the listeners again
+			if (workbench.isClosing() || enabled == installed || enabled && instance != this) {
+				return;
+			}
+			if (enabled) {
+				installed = true;
+				JavaCore.addElementChangedListener(reconcileListener, ElementChangedEvent.POST_RECONCILE);
+				workbench.addWindowListener(partListener);
+				for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+					window.getPartService().addPartListener(partListener);
+				}
+				IWorkbenchWindow window = workbench.getActiveWorkbenchWindow();
+				if (window != null && window.getActivePage() != null) {
+					activated(window.getActivePage().getActiveEditor());
+				}
+			} else {
+				uninstall(workbench);
+			}
+		});
+	}
+
+	/**
+	 * Removes the listeners installed by {@link #update(boolean)} and stops
+	 * warming. Called on the display thread.
+	 */
+	private void uninstall(IWorkbench workbench) {
+		installed = false;
+		JavaCore.removeElementChangedListener(reconcileListener);
+		workbench.removeWindowListener(partListener);
+		for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+			window.getPartService().removePartListener(partListener);
+		}
+		active = null;
+		job.cancel();
+	}
+
+	private void activated(IWorkbenchPart part) {
+		if (instance == this && part instanceof IEditorPart editor
+				&& JavaUI.getEditorInputJavaElement(editor.getEditorInput()) instanceof ICompilationUnit icu) {
+			active = icu;
+			job.reschedule(DELAY);
+		}
+	}
+
+	private void reconciled(ElementChangedEvent event) {
+		ICompilationUnit icu = active;
+		if (icu != null && icu.equals(event.getDelta().getElement())) {
+			job.reschedule(DELAY);
+		}
+	}
+
+	/**
+	 * Precomputes the metadata of the types used by the given AST. Returns the
+	 * number of types warmed.
+	 */
+	static int warm(CompilationUnit ast, IProgressMonitor monitor) {
+		TypeCollector collector = new TypeCollector();
+		ast.accept(collector);
+		// compile the templates of the commands once
+		Templates.getter();
+		Templates.setter();
+		Templates.setterWithDefault();
+		Templates.converter();
+		int warmed = 0;
+		for (ITypeBinding type : collector.types.values()) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			if (isMemoryLow()) {
+				break;
+			}
+			AccessorIndex index = AccessorCache.getIndex(type);
+			for (IMethodBinding setter : index.getSetters()) {
+				HandlerHelper.defaultValueFor(setter.getParameterTypes()[0]);
+			}
+			SignatureIndex.getKinds(type);
+			warmed++;
+		}
+		return warmed;
+	}
+
+	private static boolean isMemoryLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return used > runtime.maxMemory() * MAX_HEAP_USAGE;
+	}
+
+	private static boolean isBuilding() {
+		IJobManager jobManager = Job.getJobManager();
+		return jobManager.find(ResourcesPlugin.FAMILY_AUTO_BUILD).length > 0
+				|| jobManager.find(ResourcesPlugin.FAMILY_MANUAL_BUILD).length > 0;
+	}
+
+	/**
+	 * Collects the distinct types, keyed by binding key, of the variables declared
+	 * in a compilation unit and the return types of its methods, at most
+	 * {@value #MAX_TYPES} of them.
+	 */
+	private static final class TypeCollector extends ASTVisitor {
+		private final Map<String, ITypeBinding> types = new LinkedHashMap<>();
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			IVariableBinding binding = node.resolveBinding();
+			if (binding != null) {
+				add(binding.getType());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			IVariableBinding binding = node.resolveBinding();
+			if (binding != null) {
+				add(binding.getType());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(MethodDeclaration node) {
+			IMethodBinding binding = node.resolveBinding();
+			if (binding != null) {
+				add(binding.getReturnType());
+			}
+			return true;
+		}
+
+		private void add(ITypeBinding type) {
+			if (type == null || types.size() >= MAX_TYPES || type.isPrimitive() || type.isArray()
+					|| type.isTypeVariable() || type.isRecovered()) {
+				return;
+			}
+			// JDK types such as String and List have no properties worth warming
+			String key = type.getKey();
+			if (key != null && !type.getQualifiedName().startsWith("java.")) {
+				types.putIfAbsent(key, type);
+			}
+		}
+	}
+
+	/**
+	 * Warms the active compilation unit with its shared AST.
+	 */
+	private final class WarmUpJob extends Job {
+
+		WarmUpJob() {
+			super("Warming up accessor metadata");
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		void reschedule(long delay) {
+			cancel();
+			schedule(delay);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			ICompilationUnit icu = active;
+			if (icu == null || !icu.exists()) {
+				return Status.OK_STATUS;
+			}
+			if (isBuilding()) {
+				schedule(BUILD_DELAY);
+				return Status.OK_STATUS;
+			}
+			try {
+				CompilationUnit ast = SharedASTProviderCore.getAST(icu, SharedASTProviderCore.WAIT_ACTIVE_ONLY,
+						monitor);
+				if (ast != null && !monitor.isCanceled()) {
+					warm(ast, monitor);
+				}
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (RuntimeException e) {
+				HandlerHelper.logWarning("Failed to warm up accessor metadata", e);
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * Tracks the active Java editor of every workbench window.
+	 */
+	private final class PartListener implements IPartListener2, IWindowListener {
+
+		@Override
+		public void partActivated(IWorkbenchPartReference partRef) {
+			activated(partRef.getPart(false));
+		}
+
+		@Override
+		public void partInputChanged(IWorkbenchPartReference partRef) {
+			activated(partRef.getPart(false));
+		}
+
+		@Override
+		public void windowOpened(IWorkbenchWindow window) {
+			window.getPartService().addPartListener(this);
+		}
+
+		@Override
+		public void windowClosed(IWorkbenchWindow window) {
+			window.getPartService().removePartListener(this);
+		}
+
+		@Override
+		public void windowActivated(IWorkbenchWindow window) {
+		}
+
+		@Override
+		public void windowDeactivated(IWorkbenchWindow window) {
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.tlcsdm.eclipse.generateallsetter.preferences;
+
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.jface.preference.StringFieldEditor;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+import com.tlcsdm.eclipse.generateallsetter.handler.Template;
+
+/**
+ * Preference page of the code generation commands.
+ */
+public class GenerateAllSetterPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+	public GenerateAllSetterPreferencePage() {
+		super(GRID);
+		setPreferenceStore(Activator.getDefault().getPreferenceStore());
+		setDescription("Settings of the generate all setter and getter commands.\n\n"
+				+ "Line templates may use ${var}, ${property}, ${local}, ${Property}, ${setter}, ${getter}, ${type}, "
+				+ "${default} and ${source}; $$ writes a single $.");
+	}
+
+	@Override
+	public void init(IWorkbench workbench) {
+	}
+
+	@Override
+	protected void createFieldEditors() {
+		IntegerFieldEditor depth = new IntegerFieldEditor(PreferenceConstants.NESTED_DEPTH,
+				"Nested object depth for deep setter generation:", getFieldEditorParent());
+		depth.setValidRange(1, 10);
+		addField(depth);
+		addField(new BooleanFieldEditor(PreferenceConstants.MISSING_SETTERS_ONLY,
+				"Only generate the setters that are not called on the variable yet", getFieldEditorParent()));
+		addField(new BooleanFieldEditor(PreferenceConstants.WARM_UP,
+				"Precompute the accessors of the types used in the active editor in the background",
+				getFieldEditorParent()));
+		addField(new TemplateFieldEditor(PreferenceConstants.GETTER_TEMPLATE, "Getter template:",
+				getFieldEditorParent()));
+		addField(new TemplateFieldEditor(PreferenceConstants.SETTER_TEMPLATE, "Setter template:",
+				getFieldEditorParent()));
+		addField(new TemplateFieldEditor(PreferenceConstants.SETTER_WITH_DEFAULT_TEMPLATE,
+				"Setter with default value template:", getFieldEditorParent()));
+		addField(new TemplateFieldEditor(PreferenceConstants.CONVERTER_TEMPLATE, "Converter template:",
+				getFieldEditorParent()));
+	}
+
+	/**
+	 * A text field that only accepts a template that compiles.
+	 */
+	private static class TemplateFieldEditor extends StringFieldEditor {
+
+		TemplateFieldEditor(String name, String labelText, Composite parent) {
+			super(name, labelText, parent);
+			setEmptyStringAllowed(false);
+		}
+
+		@Override
+		protected boolean doCheckState() {
+			try {
+				Template.compile(getStringValue());
+				return true;
+			} catch (IllegalArgumentException e) {
+				setErrorMessage(e.getMessage());
+				return false;
+			}
+		}
+	}
+}
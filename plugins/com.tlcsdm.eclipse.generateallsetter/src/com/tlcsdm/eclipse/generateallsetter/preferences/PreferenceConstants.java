@@ -0,0 +1,46 @@
+package com.tlcsdm.eclipse.generateallsetter.preferences;
+
+/**
+ * Preference keys of the plug-in.
+ */
+public final class PreferenceConstants {
+
+	/** How many levels of nested bean types the deep setter generation expands. */
+	public static final String NESTED_DEPTH = "nestedDepth"; //$NON-NLS-1$
+
+	/**
+	 * Whether the generate all setter commands skip the setters that are already
+	 * called on the variable.
+	 */
+	public static final String MISSING_SETTERS_ONLY = "missingSettersOnly"; //$NON-NLS-1$
+
+	/**
+	 * Whether the accessors of the types used in the active editor are
+	 * precomputed in the background.
+	 */
+	public static final String WARM_UP = "warmUp"; //$NON-NLS-1$
+
+	/** The line template of the generate all getter command. */
+	public static final String GETTER_TEMPLATE = "getterTemplate"; //$NON-NLS-1$
+
+	/** The line template of the generate all setter without default value command. */
+	public static final String SETTER_TEMPLATE = "setterTemplate"; //$NON-NLS-1$
+
+	/**
+	 * The line template of the generate all setter with default value and with
+	 * nested objects commands.
+	 */
+	public static final String SETTER_WITH_DEFAULT_TEMPLATE = "setterWithDefaultTemplate"; //$NON-NLS-1$
+
+	/** The line template of a matched property of the converter command. */
+	public static final String CONVERTER_TEMPLATE = "converterTemplate"; //$NON-NLS-1$
+
+	public static final int DEFAULT_NESTED_DEPTH = 3;
+	public static final String DEFAULT_GETTER_TEMPLATE = "${type} ${local} = ${var}.${getter}();"; //$NON-NLS-1$
+	public static final String DEFAULT_SETTER_TEMPLATE = "${var}.${setter}();"; //$NON-NLS-1$
+	public static final String DEFAULT_SETTER_WITH_DEFAULT_TEMPLATE = "${var}.${setter}(${default});"; //$NON-NLS-1$
+	public static final String DEFAULT_CONVERTER_TEMPLATE = "${var}.${setter}(${source}.${getter}());"; //$NON-NLS-1$
+
+	private PreferenceConstants() {
+	}
+}
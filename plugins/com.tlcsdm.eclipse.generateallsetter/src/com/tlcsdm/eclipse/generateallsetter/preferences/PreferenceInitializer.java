@@ -0,0 +1,25 @@
+package com.tlcsdm.eclipse.generateallsetter.preferences;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import com.tlcsdm.eclipse.generateallsetter.Activator;
+
+/**
+ * Initializes the default preference values.
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer {
+
+	@Override
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		store.setDefault(PreferenceConstants.NESTED_DEPTH, PreferenceConstants.DEFAULT_NESTED_DEPTH);
+		store.setDefault(PreferenceConstants.MISSING_SETTERS_ONLY, false);
+		store.setDefault(PreferenceConstants.WARM_UP, false);
+		store.setDefault(PreferenceConstants.GETTER_TEMPLATE, PreferenceConstants.DEFAULT_GETTER_TEMPLATE);
+		store.setDefault(PreferenceConstants.SETTER_TEMPLATE, PreferenceConstants.DEFAULT_SETTER_TEMPLATE);
+		store.setDefault(PreferenceConstants.SETTER_WITH_DEFAULT_TEMPLATE,
+				PreferenceConstants.DEFAULT_SETTER_WITH_DEFAULT_TEMPLATE);
+		store.setDefault(PreferenceConstants.CONVERTER_TEMPLATE, PreferenceConstants.DEFAULT_CONVERTER_TEMPLATE);
+	}
+}
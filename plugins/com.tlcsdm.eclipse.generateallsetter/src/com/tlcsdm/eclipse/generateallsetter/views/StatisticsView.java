@@ -0,0 +1,120 @@
+package com.tlcsdm.eclipse.generateallsetter.views;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.ISharedImages;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.part.ViewPart;
+
+import com.tlcsdm.eclipse.generateallsetter.handler.Metrics;
+
+/**
+ * Shows the rolling percentiles of the per-phase timings and counters of the
+ * code generation commands. Statistics are only collected while this view is
+ * open or tracing is enabled.
+ */
+public class StatisticsView extends ViewPart implements Metrics.Listener {
+
+	public static final String ID = "com.tlcsdm.eclipse.generateallsetter.views.statistics"; //$NON-NLS-1$
+
+	private TableViewer viewer;
+	private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+	@Override
+	public void createPartControl(Composite parent) {
+		viewer = new TableViewer(parent, SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+		viewer.getTable().setHeaderVisible(true);
+		viewer.getTable().setLinesVisible(true);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		createColumn("Phase / Counter", 160, null, false);
+		createColumn("Count", 70, Metrics.Stat::count, false);
+		createColumn("p50", 90, Metrics.Stat::p50, true);
+		createColumn("p90", 90, Metrics.Stat::p90, true);
+		createColumn("p99", 90, Metrics.Stat::p99, true);
+		createColumn("Max", 90, Metrics.Stat::max, true);
+
+		Action reset = new Action("Reset") {
+			@Override
+			public void run() {
+				Metrics.reset();
+			}
+		};
+		reset.setToolTipText("Discard the recorded invocations");
+		reset.setImageDescriptor(
+				PlatformUI.getWorkbench().getSharedImages().getImageDescriptor(ISharedImages.IMG_ELCL_REMOVEALL));
+		getViewSite().getActionBars().getToolBarManager().add(reset);
+
+		Metrics.addListener(this);
+		viewer.setInput(Metrics.snapshot());
+	}
+
+	/**
+	 * Creates a column showing {@code value} of each row, in milliseconds if
+	 * {@code duration} is set and the row is a phase.
+	 */
+	private void createColumn(String title, int width, ToLongFunction<Metrics.Stat> value, boolean duration) {
+		TableViewerColumn column = new TableViewerColumn(viewer, value == null ? SWT.LEFT : SWT.RIGHT);
+		column.getColumn().setText(title);
+		column.getColumn().setWidth(width);
+		column.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				Metrics.Stat stat = (Metrics.Stat) element;
+				if (value == null) {
+					return stat.name();
+				}
+				long v = value.applyAsLong(stat);
+				if (!duration || isCounter(stat)) {
+					return Long.toString(v);
+				}
+				return String.format("%.2f ms", v / 1_000_000.0); //$NON-NLS-1$
+			}
+		});
+	}
+
+	private static boolean isCounter(Metrics.Stat stat) {
+		for (Metrics.Counter counter : Metrics.Counter.values()) {
+			if (counter.name().equals(stat.name())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void recorded() {
+		if (!refreshPending.compareAndSet(false, true)) {
+			return;
+		}
+		if (viewer.getControl().isDisposed()) {
+			return;
+		}
+		Display display = viewer.getControl().getDisplay();
+		display.asyncExec(() -> {
+			refreshPending.set(false);
+			if (!viewer.getControl().isDisposed()) {
+				viewer.setInput(Metrics.snapshot());
+			}
+		});
+	}
+
+	@Override
+	public void setFocus() {
+		viewer.getControl().setFocus();
+	}
+
+	@Override
+	public void dispose() {
+		Metrics.removeListener(this);
+		super.dispose();
+	}
+}